@@ -0,0 +1,151 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import solver.AlphaBetaSearch;
+import tictactoe.Coordinate;
+import tictactoe.Grid;
+import tictactoe.Mark;
+
+/**
+ * Assert that the hot path of the game allocates nothing once warmed up: marking
+ * and unmarking cells, generating actions into a buffer, checking for a winner,
+ * and each state visited by the alpha-beta search. Allocation is read from the
+ * counters of the thread MXBean, so these tests are skipped on a JVM without
+ * them.
+ *
+ * @author Tin Leelavimolsilp
+ */
+class AllocationTest {
+
+    /**
+     * Number of operations run before measuring, so that they are compiled
+     */
+    private static final int WARM_UP = 50_000;
+
+    /**
+     * Number of operations measured
+     */
+    private static final int OPERATIONS = 100_000;
+
+    /**
+     * Number of measurements; the one with the fewest bytes counts, so that a
+     * single stray allocation of the JVM itself does not fail a test
+     */
+    private static final int ROUNDS = 3;
+
+    /**
+     * Number of searches measured after warming up
+     */
+    private static final int SEARCHES = 20;
+
+    /**
+     * Thread MXBean of the JVM if it measures allocation per thread; otherwise
+     * null
+     */
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void setUp() {
+	java.lang.management.ThreadMXBean t = ManagementFactory.getThreadMXBean();
+	if (t instanceof com.sun.management.ThreadMXBean
+		&& ((com.sun.management.ThreadMXBean) t).isThreadAllocatedMemorySupported()) {
+	    threads = (com.sun.management.ThreadMXBean) t;
+	    threads.setThreadAllocatedMemoryEnabled(true);
+	}
+    }
+
+    /**
+     * Run the specified operation until warmed up, and assert that running it
+     * again allocates no byte
+     */
+    private static void assertNoAllocation(String operation, Runnable r) {
+	assumeTrue(threads != null, "The JVM does not measure allocation per thread.");
+
+	for (int i = 0; i < WARM_UP; i++)
+	    r.run();
+
+	long least = Long.MAX_VALUE;
+	for (int round = 0; round < ROUNDS && least > 0; round++) {
+	    long before = threads.getCurrentThreadAllocatedBytes();
+	    for (int i = 0; i < OPERATIONS; i++)
+		r.run();
+	    least = Math.min(least, threads.getCurrentThreadAllocatedBytes() - before);
+	}
+	long bytes = least;
+	assertEquals(0, bytes, () -> String.format("%s allocated %d bytes over %d operations (%.2f per operation)",
+		operation, bytes, OPERATIONS, (double) bytes / OPERATIONS));
+    }
+
+    /**
+     * Return a 3x3 grid with a few cells marked
+     */
+    private static Grid midgame() {
+	return Grid.parse("X--/-O-/--X", Mark.Nought, 3);
+    }
+
+    @Test
+    void testDoAndUndoAction() {
+	Grid g = midgame();
+	Coordinate[] cells = g.getAction();
+	assertNoAllocation("doAction() and undoAction()", () -> {
+	    for (Coordinate c : cells) {
+		g.doAction(c);
+		g.undoAction(c);
+	    }
+	});
+	assertEquals(midgame(), g);
+    }
+
+    @Test
+    void testActionGeneration() {
+	Grid g = midgame();
+	Coordinate[] buffer = new Coordinate[9];
+	assertNoAllocation("getAction(buffer)", () -> assertEquals(6, g.getAction(buffer)));
+    }
+
+    @Test
+    void testWinCheck() {
+
+	// marking (1, 0) and then (2, 0) makes a column of O
+	Grid g = Grid.parse("O-X/-X-/O--", Mark.Nought, 3);
+	Coordinate c = Coordinate.valueOf(1, 0);
+	assertNoAllocation("a winning action and isWinner()", () -> {
+	    g.doAction(c);
+	    if (!g.isTerminated() || g.getWinner() != Mark.Nought || !g.isWinner(Mark.Nought) || g.isWinner(Mark.Cross))
+		fail("The grid is not won by O.");
+	    g.undoAction(c);
+	});
+    }
+
+    @Test
+    void testSearch() {
+	assumeTrue(threads != null, "The JVM does not measure allocation per thread.");
+
+	// whatever the number of states visited, a warmed-up search allocates the
+	// same bytes; the fewest bytes of a fixed number of searches count
+	AlphaBetaSearch<Mark, Coordinate, Grid> search = new AlphaBetaSearch<Mark, Coordinate, Grid>(
+		new TicTacToeRules(), 1, 16);
+	Grid[] grids = { new Grid(Mark.Cross, 3), midgame() };
+	long[] nodes = new long[2], bytes = { Long.MAX_VALUE, Long.MAX_VALUE };
+	for (int run = 0; run < WARM_UP / 100 + SEARCHES; run++)
+	    for (int i = 0; i < grids.length; i++) {
+		search.clear();
+		long before = threads.getCurrentThreadAllocatedBytes();
+		search.evaluate(grids[i]);
+		long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+		nodes[i] = search.getNodes();
+		if (run >= WARM_UP / 100)
+		    bytes[i] = Math.min(bytes[i], allocated);
+	    }
+	assertTrue(nodes[0] > nodes[1] * 10);
+	assertEquals(bytes[1], bytes[0], () -> String.format(
+		"The search allocated %d bytes visiting %d states and %d bytes visiting %d states (%.2f per state)",
+		bytes[0], nodes[0], bytes[1], nodes[1], (double) (bytes[0] - bytes[1]) / (nodes[0] - nodes[1])));
+    }
+
+}
@@ -0,0 +1,148 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import connectfour.Board;
+import connectfour.Column;
+import connectfour.ConnectFourGameTree;
+import connectfour.ConnectFourRules;
+import connectfour.ConnectFourSolver;
+import connectfour.Disc;
+import solver.AlphaBetaSearch;
+import solver.Checkpoint;
+import solver.ProgressListener;
+
+/**
+ * A collection of tests on Connect-Four Board
+ * 
+ * @author Tin Leelavimolsilp
+ */
+class ConnectFourTest {
+
+    /**
+     * Drop discs into the given columns in turn
+     */
+    private static Board play(Board board, int... columns) {
+	for (int c : columns)
+	    board.doAction(Column.valueOf(c));
+	return board;
+    }
+
+    @Test
+    void testGravity() {
+	Board board = new Board(Disc.Red);
+	assertEquals(7, board.getAction().length);
+
+	play(board, 3, 3);
+	assertEquals(Disc.Red, board.getDisc(3, 0));
+	assertEquals(Disc.Yellow, board.getDisc(3, 1));
+	assertEquals(Disc.Empty, board.getDisc(3, 2));
+
+	play(board, 3, 3, 3, 3);
+	assertEquals(6, board.getAction().length);
+	assertThrows(IllegalArgumentException.class, () -> board.doAction(Column.valueOf(3)));
+	assertThrows(IllegalArgumentException.class, () -> board.doAction(Column.valueOf(7)));
+    }
+
+    @Test
+    void testLines() {
+	// vertical
+	Board board = play(new Board(Disc.Red), 0, 1, 0, 1, 0, 1);
+	assertFalse(board.isTerminated());
+	play(board, 0);
+	assertEquals(Disc.Red, board.getWinner());
+	assertNull(board.getAction());
+
+	// horizontal, ending on the right-most column
+	board = play(new Board(Disc.Yellow), 3, 0, 4, 0, 5, 0, 6);
+	assertEquals(Disc.Yellow, board.getWinner());
+
+	// rising diagonal
+	board = play(new Board(Disc.Red), 0, 1, 1, 2, 2, 3, 2, 3, 3, 6, 3);
+	assertEquals(Disc.Red, board.getWinner());
+
+	// falling diagonal
+	board = play(new Board(Disc.Red), 6, 5, 5, 4, 4, 3, 4, 3, 3, 0, 3);
+	assertEquals(Disc.Red, board.getWinner());
+
+	// no line across the top of one column and the bottom of the next
+	board = play(new Board(Disc.Red), 0, 0, 0, 0, 0, 0, 1, 2, 1, 2, 1, 2);
+	assertFalse(board.isTerminated());
+    }
+
+    @Test
+    void testUndo() {
+	Board board = play(new Board(Disc.Red), 3, 2, 3, 2, 3, 2);
+	Board before = new Board(board);
+	long key = board.getKey();
+
+	play(board, 3);
+	assertEquals(Disc.Red, board.getWinner());
+	board.undoAction(Column.valueOf(3));
+	assertEquals(before, board);
+	assertEquals(0, before.compareTo(board));
+	assertEquals(key, board.getKey());
+	assertEquals(Disc.Empty, board.getWinner());
+	assertEquals(Disc.Red, board.getPlayer());
+    }
+
+    @Test
+    void testKeyOfShape() {
+	long[] keys = { new Board(Disc.Red, 4, 4).getKey(), new Board(Disc.Red, 5, 4).getKey(),
+		new Board(Disc.Red, 4, 5).getKey(), new Board(Disc.Yellow, 4, 4).getKey() };
+	for (int i = 0; i < keys.length; i++)
+	    for (int j = i + 1; j < keys.length; j++)
+		assertNotEquals(keys[i], keys[j]);
+
+	// the same bitboards on boards of another size
+	assertNotEquals(play(new Board(Disc.Red, 4, 4), 0, 0).getKey(), play(new Board(Disc.Red, 5, 4), 0, 0).getKey());
+    }
+
+    @Test
+    void testSolve4by4Board() {
+	ConnectFourSolver solver = new ConnectFourSolver(new ConnectFourGameTree(new Board(Disc.Red, 4, 4)));
+	assertEquals(0, solver.solve());
+	assertNull(solver.getWinner());
+
+	AlphaBetaSearch<Disc, Column, Board> search = new AlphaBetaSearch<>(new ConnectFourRules(), 1, 16);
+	assertEquals(0, search.evaluate(new Board(Disc.Red, 4, 4)).value);
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+	ConnectFourGameTree tree = new ConnectFourGameTree(new Board(Disc.Red, 4, 4));
+	ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	try (DataOutputStream out = new DataOutputStream(bytes)) {
+	    for (Board b : tree)
+		b.write(out);
+	}
+	try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+	    for (Board b : tree) {
+		Board read = Board.read(in);
+		assertEquals(b, read);
+		assertEquals(b.getWinner(), read.getWinner());
+		assertEquals(b.countDiscs(), read.countDiscs());
+		assertEquals(b.getKey(), read.getKey());
+	    }
+	}
+    }
+
+    @Test
+    void testCheckpoint(@TempDir Path dir) {
+	Board board = new Board(Disc.Red, 4, 4);
+	Checkpoint checkpoint = new Checkpoint(dir, Duration.ZERO);
+	ConnectFourGameTree fresh = new ConnectFourGameTree(new Board(board));
+	assertEquals(fresh, new ConnectFourGameTree(new Board(board), ProgressListener.NONE, checkpoint));
+	assertEquals(fresh, new ConnectFourGameTree(new Board(board), ProgressListener.NONE, checkpoint));
+    }
+
+}
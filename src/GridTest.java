@@ -1,13 +1,24 @@
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import solver.AlphaBetaSearch;
+import solver.Perft;
 import tictactoe.Coordinate;
+import tictactoe.GameTrace;
 import tictactoe.Grid;
 import tictactoe.Mark;
 
@@ -411,4 +422,144 @@ class GridTest {
 	assertEquals(null, coords);
 	assertTrue(grid.isTerminated());
     }
+
+    @Test
+    void testPerft3by3Grid() {
+
+	// the well-known counts of every game of Noughts-and-Crosses
+	Perft.Result r = new Perft<Mark, Coordinate, Grid>(new TicTacToeRules()).run(new Grid(Mark.Cross, 3), 9);
+	assertArrayEquals(new long[] { 1, 9, 72, 504, 3024, 15120, 54720, 148176, 200448, 127872 }, r.getNodes());
+	assertArrayEquals(new long[] { 0, 0, 0, 0, 0, 1440, 0, 47952, 0, 81792 }, r.getWins());
+	assertArrayEquals(new long[] { 0, 0, 0, 0, 0, 0, 5328, 0, 72576, 0 }, r.getLosses());
+	assertArrayEquals(new long[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 46080 }, r.getTies());
+	assertEquals(549946, r.getTotalNodes());
+    }
+
+    @Test
+    void testCrossStart15by15GridFiveInARow() {
+
+	// test 15by15 grid of five in a row
+	Grid grid = new Grid(Mark.Cross, 15, 15, 5);
+	assertEquals(225, grid.getAction().length);
+	assertEquals(15, grid.getRows());
+	assertEquals(15, grid.getColumns());
+	assertEquals(5, grid.getLineLength());
+
+	// cross on an anti-diagonal with a gap, nought along the top row
+	int[][] moves = { { 4, 10 }, { 0, 0 }, { 5, 9 }, { 0, 1 }, { 7, 7 }, { 0, 2 }, { 8, 6 }, { 0, 3 } };
+	for (int[] m : moves)
+	    grid.doAction(new Coordinate(m[0], m[1]));
+	assertEquals(Mark.Unmarked, grid.getWinner());
+	assertFalse(grid.isTerminated());
+	assertFalse(grid.isWinner(Mark.Cross));
+
+	// cross fills the gap and makes five in a row
+	grid.doAction(new Coordinate(6, 8));
+	assertEquals(Mark.Cross, grid.getWinner());
+	assertTrue(grid.isTerminated());
+	assertEquals(null, grid.getAction());
+
+	// undoing the last action resumes the game
+	grid.undoAction(new Coordinate(6, 8));
+	assertEquals(Mark.Unmarked, grid.getWinner());
+	assertEquals(Mark.Cross, grid.getPlayer());
+
+	// nought completes the top row instead
+	grid.doAction(new Coordinate(14, 14));
+	grid.doAction(new Coordinate(0, 4));
+	assertEquals(Mark.Nought, grid.getWinner());
+	assertTrue(grid.isWinner(Mark.Nought));
+    }
+
+    @Test
+    void testKeyOfShape() {
+
+	// grids of different shapes never share the results of a search
+	AlphaBetaSearch<Mark, Coordinate, Grid> search = new AlphaBetaSearch<Mark, Coordinate, Grid>(
+		new TicTacToeRules(), 1, 16);
+	assertEquals(0, search.evaluate(new Grid(Mark.Cross, 3, 3, 3)).value);
+	assertEquals(1, search.evaluate(new Grid(Mark.Cross, 3, 3, 2)).value);
+	assertEquals(1, search.evaluate(new Grid(Mark.Cross, 4, 4, 3)).value);
+	assertNotEquals(new Grid(Mark.Cross, 3, 3, 3).getKey(), new Grid(Mark.Cross, 3, 3, 2).getKey());
+	assertNotEquals(new Grid(Mark.Cross, 3, 4, 3).getKey(), new Grid(Mark.Cross, 4, 3, 3).getKey());
+    }
+
+    @Test
+    void testParse() {
+	Grid grid = new Grid(Mark.Cross, 3);
+	grid.doAction(new Coordinate(0, 0));
+	grid.doAction(new Coordinate(1, 1));
+	Grid parsed = Grid.parse("X--/-O-/---", Mark.Cross, 3);
+	assertEquals(grid, parsed);
+	assertEquals(0, grid.compareTo(parsed));
+	assertEquals(grid.getKey(), parsed.getKey());
+	assertEquals(grid.toString(), parsed.toString());
+
+	// the status is recorded
+	assertEquals(Mark.Cross, Grid.parse("XXX/OO-/---", Mark.Nought, 3).getWinner());
+	assertNull(Grid.parse("XOX/XOO/OXX", Mark.Cross, 3).getWinner());
+	assertTrue(Grid.parse("XOX/XOO/OXX", Mark.Cross, 3).isTerminated());
+
+	assertThrows(IllegalArgumentException.class, () -> Grid.parse("X--/-O/---", Mark.Cross, 3));
+	assertThrows(IllegalArgumentException.class, () -> Grid.parse("X--/-Q-/---", Mark.Cross, 3));
+    }
+
+    @Test
+    void testWriteTooLarge() {
+	DataOutputStream out = new DataOutputStream(new ByteArrayOutputStream());
+	assertThrows(IllegalStateException.class, () -> new Grid(Mark.Cross, 256, 1, 1).write(out));
+	assertThrows(IllegalStateException.class, () -> new Grid(Mark.Cross, 1, 256, 1).write(out));
+    }
+
+    @Test
+    void testReadCorrupt() throws IOException {
+	ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	new Grid(Mark.Cross, 2).write(new DataOutputStream(bytes));
+	byte[] valid = bytes.toByteArray();
+	assertEquals(new Grid(Mark.Cross, 2), Grid.read(new DataInputStream(new ByteArrayInputStream(valid))));
+
+	// a zero size, a line longer than the grid, an unmarked or unknown player,
+	// an unknown mark, and a grid cut short
+	int[][] corruptions = { { 0, 0 }, { 2, 3 }, { 3, Mark.Unmarked.ordinal() }, { 3, 7 }, { 5, 9 } };
+	for (int[] c : corruptions) {
+	    byte[] b = valid.clone();
+	    b[c[0]] = (byte) c[1];
+	    assertThrows(IOException.class, () -> Grid.read(new DataInputStream(new ByteArrayInputStream(b))),
+		    Arrays.toString(c));
+	}
+	assertThrows(IOException.class, () -> Grid.read(
+		new DataInputStream(new ByteArrayInputStream(Arrays.copyOf(valid, valid.length - 1)))));
+    }
+
+    @Test
+    void testGameTrace(@TempDir Path dir) throws IOException {
+	Path file = dir.resolve("trace");
+	Coordinate[] moves = { new Coordinate(1, 1), new Coordinate(0, 0), new Coordinate(2, 2) };
+	try (GameTrace.Writer writer = new GameTrace.Writer(file)) {
+	    GameTrace.Recording r = writer.newGame(new Grid(Mark.Nought, 3));
+	    for (Coordinate c : moves) {
+		r.query();
+		r.move(c);
+	    }
+	    r.finish();
+	    writer.newGame(Grid.parse("X----/-----/-----/-----/-----", Mark.Nought, 4)).finish();
+	    assertEquals(2, writer.getGames());
+	}
+
+	List<GameTrace.Game> games = GameTrace.read(file);
+	assertEquals(2, games.size());
+	assertEquals(new Grid(Mark.Nought, 3), games.get(0).getInitial());
+	assertArrayEquals(new Coordinate[] { null, moves[0], null, moves[1], null, moves[2] },
+		games.get(0).getEvents());
+	assertEquals(3, games.get(0).countQueries());
+	assertEquals(Grid.parse("X----/-----/-----/-----/-----", Mark.Nought, 4), games.get(1).getInitial());
+	assertEquals(0, games.get(1).getEvents().length);
+
+	// a replay answers every query
+	TicTacToeReplay.Result r = new TicTacToeReplay(games.subList(0, 1)).run();
+	assertEquals(3, r.moves);
+	assertEquals(3, r.queries);
+	assertTrue(r.checksum >= 3);
+    }
+
 }
@@ -0,0 +1,59 @@
+import solver.AlphaBetaSearch;
+import solver.Evaluation;
+import tictactoe.Coordinate;
+import tictactoe.Grid;
+import tictactoe.Mark;
+
+/**
+ * Report the speedup of the parallel alpha-beta search of Noughts-and-Crosses
+ * per number of threads, for 3x3 and 4x4 grids. The number of threads is
+ * doubled up to the number of available processors, or up to the number given
+ * as the only argument.
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class LazySmpBenchmark {
+
+    /**
+     * Base 2 logarithm of the number of transposition table entries
+     */
+    private static final int TABLE_BITS = 22;
+
+    /**
+     * Number of timed searches per configuration; the fastest one is reported
+     */
+    private static final int RUNS = 3;
+
+    public static void main(String... arg) {
+	int maxThreads = arg.length > 0 ? Integer.parseInt(arg[0]) : Runtime.getRuntime().availableProcessors();
+	for (int size = 3; size <= 4; size++) {
+	    System.out.println("Grid " + size + "x" + size);
+	    System.out.println("threads\tms\tnodes\tspeedup\tvalue");
+
+	    long base = 0;
+	    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+		long best = Long.MAX_VALUE, nodes = 0;
+		Evaluation<Coordinate> e = null;
+		for (int run = 0; run < RUNS; run++) {
+
+		    // a fresh table each time, so no search benefits from an earlier one
+		    AlphaBetaSearch<Mark, Coordinate, Grid> search = new AlphaBetaSearch<Mark, Coordinate, Grid>(
+			    new TicTacToeRules(), threads, TABLE_BITS);
+		    long start = System.nanoTime();
+		    e = search.evaluate(new Grid(Mark.Cross, size));
+		    long elapsed = System.nanoTime() - start;
+		    if (elapsed < best) {
+			best = elapsed;
+			nodes = search.getNodes();
+		    }
+		}
+
+		if (threads == 1)
+		    base = best;
+		System.out.printf("%d\t%d\t%d\t%.2f\t%s%n", threads, best / 1_000_000, nodes, (double) base / best, e);
+	    }
+	    System.out.println();
+	}
+    }
+
+}
@@ -0,0 +1,156 @@
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import solver.AlphaBetaSearch;
+import tictactoe.Coordinate;
+import tictactoe.Grid;
+import tictactoe.Mark;
+
+/**
+ * Budgets on the work and allocation of building, solving and searching 2x2 and
+ * 3x3 grids from either mark, so that a regression in Grid, GameTree or Solver
+ * fails like a functional bug. Each failure reports the measured value and how
+ * far it is over its budget. The budgets on nodes are exact counts or close to
+ * them; those on bytes and time leave room for other JVMs and slower machines.
+ *
+ * @author Tin Leelavimolsilp
+ */
+class PerformanceTest {
+
+    /**
+     * Number of grids of each size reachable from an empty grid
+     */
+    private static final int[] NODES_BUILT = { 0, 0, 29, 5478 };
+
+    /**
+     * Most states visited by a single-threaded alpha-beta search of an empty grid
+     * of each size
+     */
+    private static final long[] NODES_VISITED = { 0, 0, 25, 5300 };
+
+    /**
+     * Most bytes allocated by building and solving the tree of an empty grid of
+     * each size
+     */
+    private static final long[] BUILD_BYTES = { 0, 0, 64 << 10, 12 << 20 };
+
+    /**
+     * Most bytes allocated per action by playing the policy
+     */
+    private static final long BYTES_PER_MOVE = 256;
+
+    /**
+     * Most milliseconds taken by building and solving the tree of an empty grid
+     * of each size once the JVM is warmed up
+     */
+    private static final long[] BUILD_MILLIS = { 0, 0, 100, 2000 };
+
+    /**
+     * Number of games played to measure the allocation per action
+     */
+    private static final int GAMES = 1000;
+
+    /**
+     * Thread MXBean of the JVM if it measures allocation per thread; otherwise
+     * null
+     */
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void warmUp() {
+	java.lang.management.ThreadMXBean t = ManagementFactory.getThreadMXBean();
+	if (t instanceof com.sun.management.ThreadMXBean
+		&& ((com.sun.management.ThreadMXBean) t).isThreadAllocatedMemorySupported()) {
+	    threads = (com.sun.management.ThreadMXBean) t;
+	    threads.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	// so that the timed runs are not spent loading classes and compiling
+	for (int i = 0; i < 3; i++)
+	    new TicTacToeSolver(new TicTacToeGameTree(new Grid(Mark.Cross, 3))).solve();
+    }
+
+    /**
+     * Assert that the specified measure is within its budget, reporting by how
+     * much it is over otherwise
+     */
+    private static void assertWithin(String measure, long budget, long measured) {
+	assertTrue(measured <= budget, () -> String.format("%s: measured %d, %d (%+.1f%%) over the budget of %d",
+		measure, measured, measured - budget, 100.0 * (measured - budget) / budget, budget));
+    }
+
+    @Test
+    void testNodesBuilt() {
+	for (int size = 2; size <= 3; size++)
+	    for (Mark m : new Mark[] { Mark.Cross, Mark.Nought })
+		assertWithin(size + "x" + size + " from " + m + ", nodes built", NODES_BUILT[size],
+			new TicTacToeGameTree(new Grid(m, size)).size());
+    }
+
+    @Test
+    void testNodesVisited() {
+	for (int size = 2; size <= 3; size++)
+	    for (Mark m : new Mark[] { Mark.Cross, Mark.Nought }) {
+		AlphaBetaSearch<Mark, Coordinate, Grid> search = new AlphaBetaSearch<Mark, Coordinate, Grid>(
+			new TicTacToeRules(), 1, 16);
+		search.evaluate(new Grid(m, size));
+		assertWithin(size + "x" + size + " from " + m + ", nodes visited", NODES_VISITED[size],
+			search.getNodes());
+	    }
+    }
+
+    @Test
+    void testBuildAllocation() {
+	assumeTrue(threads != null, "The JVM does not measure allocation per thread.");
+
+	for (int size = 2; size <= 3; size++)
+	    for (Mark m : new Mark[] { Mark.Cross, Mark.Nought }) {
+		long before = threads.getCurrentThreadAllocatedBytes();
+		new TicTacToeSolver(new TicTacToeGameTree(new Grid(m, size))).solve();
+		assertWithin(size + "x" + size + " from " + m + ", bytes allocated building and solving",
+			BUILD_BYTES[size], threads.getCurrentThreadAllocatedBytes() - before);
+	    }
+    }
+
+    @Test
+    void testAllocationPerMove() {
+	assumeTrue(threads != null, "The JVM does not measure allocation per thread.");
+
+	for (int size = 2; size <= 3; size++)
+	    for (Mark m : new Mark[] { Mark.Cross, Mark.Nought }) {
+		TicTacToeSolver s = new TicTacToeSolver(new TicTacToeGameTree(new Grid(m, size)));
+		s.solve();
+		s.getPolicy(new Grid(m, size));
+
+		long moves = 0;
+		long before = threads.getCurrentThreadAllocatedBytes();
+		for (int game = 0; game < GAMES; game++) {
+		    Grid g = new Grid(m, size);
+		    while (!g.isTerminated()) {
+			Coordinate[] best = s.getPolicy(g);
+			g.doAction(best[game % best.length]);
+			moves++;
+		    }
+		}
+		assertWithin(size + "x" + size + " from " + m + ", bytes allocated per move", BYTES_PER_MOVE,
+			(threads.getCurrentThreadAllocatedBytes() - before) / moves);
+	    }
+    }
+
+    @Test
+    void testBuildTime() {
+	for (int size = 2; size <= 3; size++)
+	    for (Mark m : new Mark[] { Mark.Cross, Mark.Nought }) {
+		long start = System.nanoTime();
+		new TicTacToeSolver(new TicTacToeGameTree(new Grid(m, size))).solve();
+		assertWithin(size + "x" + size + " from " + m + ", milliseconds building and solving",
+			BUILD_MILLIS[size], (System.nanoTime() - start) / 1_000_000);
+	    }
+    }
+
+}
@@ -0,0 +1,103 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import solver.AlphaBetaSearch;
+import solver.Evaluation;
+import tictactoe.Coordinate;
+import tictactoe.Grid;
+import tictactoe.Mark;
+
+/**
+ * A stress test on a solver of Noughts-and-Crosses shared by many threads
+ * 
+ * @author Tin Leelavimolsilp
+ */
+class SolverConcurrencyTest {
+
+    /**
+     * Number of threads querying the same solver
+     */
+    private static final int THREADS = 16;
+
+    /**
+     * Number of queries made by each thread
+     */
+    private static final int QUERIES = 20_000;
+
+    @Test
+    void testConcurrentQueriesOnUnsolvedSolver() throws Exception {
+
+	// answers of a solver used by a single thread
+	TicTacToeGameTree tree = new TicTacToeGameTree(new Grid(Mark.Cross, 3));
+	TicTacToeSolver reference = new TicTacToeSolver(tree);
+	List<Grid> grids = new ArrayList<Grid>();
+	List<Coordinate[]> policies = new ArrayList<Coordinate[]>();
+	for (Grid g : tree) {
+	    grids.add(g);
+	    policies.add(reference.getPolicy(g));
+	}
+	Mark winner = reference.getWinner();
+
+	// the same queries from many threads started together on a fresh solver
+	for (int round = 0; round < 5; round++) {
+	    TicTacToeSolver shared = new TicTacToeSolver(tree);
+	    CountDownLatch start = new CountDownLatch(1);
+	    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+	    try {
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int t = 0; t < THREADS; t++)
+		    futures.add(pool.submit(() -> {
+			start.await();
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			for (int q = 0; q < QUERIES; q++) {
+			    int i = random.nextInt(grids.size());
+			    assertArrayEquals(policies.get(i), shared.getPolicy(grids.get(i)));
+			    if (shared.solved())
+				assertEquals(winner, shared.getWinner());
+			}
+			assertEquals(0, shared.solve());
+			return null;
+		    }));
+
+		start.countDown();
+		for (Future<?> f : futures)
+		    f.get();
+	    } finally {
+		pool.shutdownNow();
+	    }
+
+	    // all but the first few queries read the published policy
+	    assertEquals(THREADS * (long) QUERIES, shared.getMetrics().getPolicyQueries());
+	    assertTrue(shared.getMetrics().getPolicyCacheHitRate() > 0.99);
+	}
+    }
+
+    @Test
+    void testLazySmpSearch() {
+
+	// threads sharing the transposition table agree with a single thread
+	Grid[] grids = { new Grid(Mark.Cross, 3), new Grid(Mark.Cross, 4, 4, 3) };
+	for (Grid g : grids) {
+	    float expected = new AlphaBetaSearch<Mark, Coordinate, Grid>(new TicTacToeRules(), 1, 20).evaluate(g).value;
+	    assertEquals(g.getRows() == 3 ? 0 : 1, expected);
+	    for (int threads : new int[] { 2, 4 }) {
+		AlphaBetaSearch<Mark, Coordinate, Grid> search = new AlphaBetaSearch<Mark, Coordinate, Grid>(
+			new TicTacToeRules(), threads, 20);
+		Evaluation<Coordinate> e = search.evaluate(g);
+		assertEquals(expected, e.value, threads + " threads on " + g.getRows() + "x" + g.getColumns());
+		assertTrue(Arrays.asList(g.getAction()).contains(e.actions[0]));
+	    }
+	}
+    }
+
+}
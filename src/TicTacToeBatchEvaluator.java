@@ -0,0 +1,172 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import solver.Evaluation;
+import tictactoe.Coordinate;
+import tictactoe.Grid;
+
+/**
+ * Evaluate positions of Noughts-and-Crosses in bulk. Positions are read line by
+ * line, evaluated in chunks on a pool of threads against a shared pre-solved
+ * cache, and written out in the order they were read. At most a fixed number of
+ * chunks are in flight, so memory stays bounded however long the input is.
+ * <P>
+ * Each input line is a grid in its text form, optionally followed by the player
+ * (X or O) and the line length, e.g. {@code X--/-O-/--- X 3}. Each output line
+ * is the input line, a tab, and either the value to the player, a tab and the
+ * best actions separated by spaces, or {@code error}, a tab and the reason.
+ * <P>
+ * Usage:
+ * {@code java TicTacToeSolver --batch [input|-] [output|-] [sizes] [threads]},
+ * e.g. {@code --batch positions.txt - 2,3 4}
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class TicTacToeBatchEvaluator {
+
+    public static void main(String... arg) {
+	String input = arg.length > 0 ? arg[0] : "-", output = arg.length > 1 ? arg[1] : "-";
+	int[] sizes = Arrays.stream((arg.length > 2 ? arg[2] : "3").split(",")).map(String::trim)
+		.mapToInt(Integer::parseInt).toArray();
+	int threads = arg.length > 3 ? Integer.parseInt(arg[3]) : Runtime.getRuntime().availableProcessors();
+
+	ExecutorService executor = Executors.newFixedThreadPool(threads);
+	try (BufferedReader in = input.equals("-")
+		? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), BUFFER)
+		: new BufferedReader(Channels.newReader(FileChannel.open(Paths.get(input)), StandardCharsets.UTF_8),
+			BUFFER);
+		Writer out = new BufferedWriter(output.equals("-")
+			? new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8)
+			: Channels.newWriter(FileChannel.open(Paths.get(output), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), StandardCharsets.UTF_8),
+			BUFFER)) {
+	    long start = System.nanoTime();
+	    long n = evaluate(in, out, new TicTacToePolicyCache(sizes), executor, threads * 4);
+	    out.flush();
+	    System.err.println(n + " positions in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+	} catch (IOException e) {
+	    e.printStackTrace();
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	} finally {
+	    executor.shutdownNow();
+	}
+    }
+
+    /**
+     * Size of the buffers of input and output in characters
+     */
+    private static final int BUFFER = 1 << 16;
+
+    /**
+     * Number of lines evaluated as one task
+     */
+    static final int CHUNK = 1024;
+
+    private TicTacToeBatchEvaluator() {
+    }
+
+    /**
+     * Evaluate every line of the specified input on the specified executor and
+     * write the results to the specified output in order, with at most the
+     * specified number of chunks of lines in flight. The number of lines is
+     * returned.
+     */
+    public static long evaluate(BufferedReader in, Writer out, TicTacToePolicyCache cache, ExecutorService executor,
+	    int window) throws IOException, InterruptedException {
+	if (window <= 0)
+	    throw new IllegalArgumentException("The specified window must be positive.");
+
+	Deque<Future<String[]>> pending = new ArrayDeque<Future<String[]>>();
+	long count = 0;
+	String[] chunk = new String[CHUNK];
+	int n = 0;
+	String line;
+	while ((line = in.readLine()) != null) {
+	    chunk[n++] = line;
+	    count++;
+	    if (n == CHUNK) {
+		if (pending.size() == window)
+		    write(pending.poll(), out);
+		String[] lines = chunk;
+		pending.add(executor.submit(() -> evaluate(lines, CHUNK, cache)));
+		chunk = new String[CHUNK];
+		n = 0;
+	    }
+	}
+
+	if (n > 0) {
+	    String[] lines = chunk;
+	    int length = n;
+	    pending.add(executor.submit(() -> evaluate(lines, length, cache)));
+	}
+	while (!pending.isEmpty())
+	    write(pending.poll(), out);
+	return count;
+    }
+
+    /**
+     * Write the results of the specified chunk once it is evaluated
+     */
+    private static void write(Future<String[]> chunk, Writer out) throws IOException, InterruptedException {
+	try {
+	    for (String result : chunk.get()) {
+		out.write(result);
+		out.write('\n');
+	    }
+	} catch (ExecutionException e) {
+	    throw new IllegalStateException("A chunk of positions failed.", e.getCause());
+	}
+    }
+
+    /**
+     * Return the results of the first specified number of lines
+     */
+    private static String[] evaluate(String[] lines, int length, TicTacToePolicyCache cache) {
+	String[] results = new String[length];
+	StringBuilder sb = new StringBuilder();
+	for (int i = 0; i < length; i++) {
+	    sb.setLength(0);
+	    sb.append(lines[i]).append('\t');
+	    try {
+		String[] tokens = lines[i].trim().split("\\s+");
+		if (tokens[0].isEmpty() || tokens.length > 3)
+		    throw new IllegalArgumentException("The line is not a grid, a player and a line length.");
+
+		Grid g = TicTacToeServer.parseGrid(tokens[0], tokens.length > 1 ? tokens[1] : null,
+			tokens.length > 2 ? tokens[2] : null);
+		Evaluation<Coordinate> e = cache.get(g);
+		if (e == null)
+		    throw new IllegalArgumentException("The grid is not one of the solved grids.");
+
+		sb.append(e.value).append('\t');
+		if (e.actions != null)
+		    for (int a = 0; a < e.actions.length; a++)
+			sb.append(a == 0 ? "" : " ").append(e.actions[a].row).append(',').append(e.actions[a].column);
+	    } catch (IllegalArgumentException e) {
+		sb.append("error\t").append(e.getMessage());
+	    }
+	    results[i] = sb.toString();
+	}
+	return results;
+    }
+
+}
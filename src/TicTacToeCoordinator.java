@@ -0,0 +1,298 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import solver.Evaluation;
+import tictactoe.Coordinate;
+import tictactoe.Grid;
+import tictactoe.Mark;
+
+/**
+ * Solve Noughts-and-Crosses across several worker JVMs on this host, standing in
+ * for a cluster. The coordinator expands the grid to a given depth, spreads the
+ * distinct grids found there over the workers, and each worker builds and
+ * solves one game tree shared by its grids. The values come back through files
+ * and the coordinator backs them up to the root.
+ * <P>
+ * Usage: {@code java TicTacToeCoordinator <size> <workers> <depth>}
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class TicTacToeCoordinator {
+
+    public static void main(String... arg) throws IOException, InterruptedException {
+	if (arg.length == 3 && arg[0].equals(WORKER)) {
+	    work(Paths.get(arg[1]), Paths.get(arg[2]));
+	    return;
+	}
+
+	int size = arg.length > 0 ? Integer.parseInt(arg[0]) : 3;
+	int workers = arg.length > 1 ? Integer.parseInt(arg[1]) : Runtime.getRuntime().availableProcessors();
+	int depth = arg.length > 2 ? Integer.parseInt(arg[2]) : 2;
+	System.out.println(solve(new Grid(Mark.Cross, size), workers, depth));
+    }
+
+    /**
+     * First argument that runs the main method as a worker
+     */
+    private static final String WORKER = "worker";
+
+    private TicTacToeCoordinator() {
+    }
+
+    /**
+     * Solve the specified grid with the specified number of worker JVMs, each of
+     * which solves a share of the grids the specified number of actions away, at
+     * least one. The workers run with the specified options, such as a heap size,
+     * on the classpath of this JVM plus the location this class was loaded from,
+     * so that they find it even if this JVM was started by a launcher such as
+     * {@code java -jar}.
+     */
+    public static Result solve(Grid root, int workers, int depth, String... jvmOptions)
+	    throws IOException, InterruptedException {
+	if (root == null)
+	    throw new NullPointerException("The specified grid must not be null.");
+	if (workers <= 0)
+	    throw new IllegalArgumentException("The specified number of workers must be positive.");
+	if (depth <= 0)
+	    throw new IllegalArgumentException("The specified depth must be positive.");
+	long start = System.nanoTime();
+
+	// partition the grids at the given depth round-robin, so that each worker
+	// gets grids from every part of the tree
+	List<List<Grid>> partitions = new ArrayList<List<Grid>>();
+	for (int w = 0; w < workers; w++)
+	    partitions.add(new ArrayList<Grid>());
+	int n = 0;
+	for (Grid g : getFrontier(root, depth))
+	    partitions.get(n++ % workers).add(g);
+
+	Path dir = Files.createTempDirectory("tictactoe-");
+	try {
+	    String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+	    Process[] processes = new Process[workers];
+	    try {
+		for (int w = 0; w < workers; w++) {
+		    Path in = dir.resolve("partition-" + w), out = dir.resolve("values-" + w);
+		    writeGrids(in, partitions.get(w));
+
+		    List<String> command = new ArrayList<String>();
+		    command.add(java);
+		    command.addAll(Arrays.asList(jvmOptions));
+		    command.addAll(Arrays.asList("-cp", getClassPath(),
+			    TicTacToeCoordinator.class.getName(), WORKER, in.toString(), out.toString()));
+		    processes[w] = new ProcessBuilder(command).redirectOutput(Redirect.DISCARD)
+			    .redirectError(Redirect.INHERIT).start();
+		}
+
+		for (int w = 0; w < workers; w++) {
+		    int code = processes[w].waitFor();
+		    if (code != 0)
+			throw new IOException("Worker " + w + " exited with code " + code + ".");
+		}
+	    } finally {
+		for (Process p : processes)
+		    if (p != null)
+			p.destroy();
+	    }
+
+	    // back up the values from the grids at the given depth to the root
+	    Map<Grid, Float> values = new TreeMap<Grid, Float>();
+	    for (int w = 0; w < workers; w++)
+		readValues(dir.resolve("values-" + w), values);
+	    return backup(root, depth, values, workers, System.nanoTime() - start);
+	} finally {
+	    try (Stream<Path> files = Files.walk(dir)) {
+		files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+	    }
+	}
+    }
+
+    /**
+     * Return the classpath of the workers
+     */
+    private static String getClassPath() {
+	String classPath = System.getProperty("java.class.path", "");
+	CodeSource source = TicTacToeCoordinator.class.getProtectionDomain().getCodeSource();
+	if (source == null || source.getLocation() == null)
+	    return classPath;
+
+	try {
+	    String location = Paths.get(source.getLocation().toURI()).toString();
+	    return classPath.isEmpty() ? location : location + File.pathSeparator + classPath;
+	} catch (URISyntaxException e) {
+	    return classPath;
+	}
+    }
+
+    /**
+     * Return the distinct non-terminal grids reachable from the specified grid in
+     * exactly the specified number of actions
+     */
+    private static Set<Grid> getFrontier(Grid root, int depth) {
+	Set<Grid> layer = new TreeSet<Grid>();
+	if (!root.isTerminated())
+	    layer.add(new Grid(root));
+	for (int d = 0; d < depth; d++) {
+	    Set<Grid> next = new TreeSet<Grid>();
+	    for (Grid g : layer)
+		for (Coordinate c : g.getAction()) {
+		    Grid child = new Grid(g);
+		    child.doAction(c);
+		    if (!child.isTerminated())
+			next.add(child);
+		}
+	    layer = next;
+	}
+	return layer;
+    }
+
+    /**
+     * Return value and best actions of the specified grid given the values of the
+     * grids the specified number of actions away
+     */
+    private static Result backup(Grid root, int depth, Map<Grid, Float> values, int workers, long nanos) {
+	Coordinate[] actions = root.getAction();
+	if (actions == null)
+	    return new Result(value(root, 0, values), null, workers, nanos);
+
+	float best = Float.NEGATIVE_INFINITY;
+	float[] value = new float[actions.length];
+	for (int a = 0; a < actions.length; a++) {
+	    Grid child = new Grid(root);
+	    child.doAction(actions[a]);
+	    value[a] = -value(child, depth - 1, values);
+	    best = Math.max(best, value[a]);
+	}
+
+	List<Coordinate> bestActions = new ArrayList<Coordinate>();
+	for (int a = 0; a < actions.length; a++)
+	    if (value[a] == best)
+		bestActions.add(actions[a]);
+	return new Result(best == 0 ? 0 : best, bestActions.toArray(new Coordinate[0]), workers, nanos);
+    }
+
+    /**
+     * Return value of the specified grid with respect to its player, the
+     * specified number of actions above the solved grids
+     */
+    private static float value(Grid g, int depth, Map<Grid, Float> values) {
+	if (g.isTerminated()) {
+	    Mark w = g.getWinner();
+	    return w == null ? 0 : w.equals(g.getPlayer()) ? 1 : -1;
+	}
+	if (depth == 0)
+	    return values.get(g);
+
+	float best = Float.NEGATIVE_INFINITY;
+	for (Coordinate c : g.getAction()) {
+	    Grid child = new Grid(g);
+	    child.doAction(c);
+	    best = Math.max(best, -value(child, depth - 1, values));
+	}
+	return best;
+    }
+
+    /**
+     * Solve the grids of the specified partition file and write their values to
+     * the specified file
+     */
+    private static void work(Path in, Path out) throws IOException {
+	List<Grid> grids = new ArrayList<Grid>();
+	try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(in)))) {
+	    for (int n = input.readInt(); n > 0; n--)
+		grids.add(Grid.read(input));
+	}
+
+	List<Evaluation<Coordinate>> evaluations = grids.isEmpty() ? new ArrayList<Evaluation<Coordinate>>()
+		: TicTacToeSolver.solveBatch(grids);
+	try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out)))) {
+	    output.writeInt(grids.size());
+	    for (int i = 0; i < grids.size(); i++) {
+		grids.get(i).write(output);
+		output.writeFloat(evaluations.get(i).value);
+	    }
+	}
+    }
+
+    /**
+     * Write the specified grids to the specified file
+     */
+    private static void writeGrids(Path file, List<Grid> grids) throws IOException {
+	try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+	    output.writeInt(grids.size());
+	    for (Grid g : grids)
+		g.write(output);
+	}
+    }
+
+    /**
+     * Read the grids and values of the specified file into the given map
+     */
+    private static void readValues(Path file, Map<Grid, Float> values) throws IOException {
+	try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+	    for (int n = input.readInt(); n > 0; n--) {
+		Grid g = Grid.read(input);
+		values.put(g, input.readFloat());
+	    }
+	}
+    }
+
+    /**
+     * Value and best actions of the root grid, along with how they were computed
+     */
+    public static final class Result {
+
+	/**
+	 * Value of the root grid with respect to its player
+	 */
+	public final float value;
+
+	/**
+	 * Best actions to take on the root grid. Null if it is a terminal state.
+	 */
+	public final Coordinate[] actions;
+
+	/**
+	 * Number of worker JVMs
+	 */
+	public final int workers;
+
+	/**
+	 * Wall time from partitioning to the merged result in nanoseconds
+	 */
+	public final long nanos;
+
+	Result(float value, Coordinate[] actions, int workers, long nanos) {
+	    this.value = value;
+	    this.actions = actions;
+	    this.workers = workers;
+	    this.nanos = nanos;
+	}
+
+	@Override
+	public String toString() {
+	    return "value=" + value + " actions=" + Arrays.toString(actions) + " workers=" + workers + " ms="
+		    + nanos / 1_000_000;
+	}
+    }
+
+}
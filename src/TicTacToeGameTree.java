@@ -1,4 +1,13 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+
+import solver.Checkpoint;
 import solver.GameTree;
+import solver.MemoryBudget;
+import solver.ProgressListener;
 import tictactoe.Coordinate;
 import tictactoe.Grid;
 import tictactoe.Mark;
@@ -14,6 +23,72 @@ public class TicTacToeGameTree extends GameTree<Mark, Coordinate, Grid> {
 	super(root);
     }
 
+    TicTacToeGameTree(Grid root, ProgressListener progress) {
+	super(root, progress);
+    }
+
+    /**
+     * Construct a single game tree shared by all the specified grids, of which
+     * the first is the root
+     */
+    TicTacToeGameTree(Collection<? extends Grid> roots) {
+	super(roots);
+    }
+
+    /**
+     * Construct a game tree from the specified root within the specified memory
+     * budget
+     */
+    TicTacToeGameTree(Grid root, ProgressListener progress, MemoryBudget budget) {
+	super(Collections.singletonList(root), progress, budget);
+    }
+
+    /**
+     * Construct a game tree from the specified root, saving its progress to the
+     * specified checkpoint and resuming from it
+     */
+    TicTacToeGameTree(Grid root, ProgressListener progress, Checkpoint checkpoint) {
+	super(Collections.singletonList(root), progress, MemoryBudget.UNLIMITED, checkpoint);
+    }
+
+    /**
+     * Construct a single game tree from the specified grids within the specified
+     * memory budget, saving its progress to the specified checkpoint and resuming
+     * from it
+     */
+    TicTacToeGameTree(Collection<? extends Grid> roots, ProgressListener progress, MemoryBudget budget,
+	    Checkpoint checkpoint) {
+	super(roots, progress, budget, checkpoint);
+    }
+
+    /**
+     * Construct a single game tree from the specified grids within the specified
+     * memory budget and number of actions, saving its progress to the specified
+     * checkpoint and resuming from it
+     */
+    TicTacToeGameTree(Collection<? extends Grid> roots, ProgressListener progress, MemoryBudget budget,
+	    Checkpoint checkpoint, int maxDepth) {
+	super(roots, progress, budget, checkpoint, maxDepth);
+    }
+
+    /**
+     * Construct a game tree of the grids within the specified number of actions
+     * from the specified root
+     */
+    TicTacToeGameTree(Grid root, int maxDepth) {
+	super(Collections.singletonList(root), ProgressListener.NONE, MemoryBudget.UNLIMITED, Checkpoint.NONE,
+		maxDepth);
+    }
+
+    private TicTacToeGameTree(TicTacToeGameTree tree, Grid root) {
+	super(tree, root);
+    }
+
+    @Override
+    public final TicTacToeGameTree reroot(Grid s) {
+	return new TicTacToeGameTree(this, s);
+    }
+
     @Override
     protected final Grid constructNewState(Grid s) {
 	return new Grid(s);
@@ -29,4 +104,71 @@ public class TicTacToeGameTree extends GameTree<Mark, Coordinate, Grid> {
 	return new Coordinate[length][];
     }
 
+    @Override
+    protected final void writeState(Grid s, DataOutput out) throws IOException {
+	s.write(out);
+    }
+
+    @Override
+    protected final Grid readState(DataInput in) throws IOException {
+	return Grid.read(in);
+    }
+
+    @Override
+    protected final int getBoardSize(Grid s) {
+	return s.getRows() * s.getColumns();
+    }
+
+    /**
+     * Every grid reachable with k more marks places ceil(k/2) marks of the player
+     * to move and floor(k/2) of the other on the unmarked cells, so the states are
+     * at most the sum over k of C(e, k) C(k, ceil(k/2)), with e unmarked cells.
+     * Grids where the game ended early make it an over-estimate.
+     */
+    @Override
+    protected final long estimateNodeCount(Grid s) {
+	int e = s.countUnmarkedCells();
+	double count = 0, cells = 1;
+	for (int k = 0; k <= e; k++) {
+	    // cells is C(e, k)
+	    count += cells * binomial(k, (k + 1) / 2);
+	    cells = cells * (e - k) / (k + 1);
+	}
+	return count >= Long.MAX_VALUE ? Long.MAX_VALUE : Math.round(count);
+    }
+
+    /**
+     * Return C(n, k) as a double
+     */
+    private static double binomial(int n, int k) {
+	double c = 1;
+	for (int i = 1; i <= k; i++)
+	    c = c * (n - k + i) / i;
+	return c;
+    }
+
+    /**
+     * A grid holds its fields and an array of rows, each of which is an array of
+     * references to the shared marks
+     */
+    @Override
+    protected final long estimateStateBytes(Grid s) {
+	return 32 + (16 + 4L * s.getRows()) + s.getRows() * align(16 + 4L * s.getColumns());
+    }
+
+    /**
+     * A coordinate holds two integers
+     */
+    @Override
+    protected final long estimateActionBytes(Coordinate a) {
+	return 24;
+    }
+
+    /**
+     * Round the given number of bytes up to the 8-byte object alignment
+     */
+    private static long align(long bytes) {
+	return (bytes + 7) & ~7L;
+    }
+
 }
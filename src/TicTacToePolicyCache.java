@@ -0,0 +1,74 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import solver.Evaluation;
+import tictactoe.Coordinate;
+import tictactoe.Grid;
+import tictactoe.Mark;
+
+/**
+ * Solved Noughts-and-Crosses grids of some sizes, ready to answer best actions
+ * from the first query. Each size is solved once at construction for either
+ * player to start, and every grid of it is queried once so that the policy is
+ * generated and the code paths are warm.
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class TicTacToePolicyCache {
+
+    /**
+     * Solver of each size, over one tree holding both starting grids
+     */
+    private final Map<Integer, TicTacToeSolver> solvers = new TreeMap<Integer, TicTacToeSolver>();
+
+    /**
+     * Trees of each size
+     */
+    private final Map<Integer, TicTacToeGameTree> trees = new TreeMap<Integer, TicTacToeGameTree>();
+
+    /**
+     * Solve square grids of the specified sizes
+     */
+    public TicTacToePolicyCache(int... sizes) {
+	for (int size : sizes) {
+	    TicTacToeGameTree tree = new TicTacToeGameTree(
+		    Arrays.asList(new Grid(Mark.Cross, size), new Grid(Mark.Nought, size)));
+	    TicTacToeSolver solver = new TicTacToeSolver(tree);
+	    solver.solve();
+	    for (Grid g : tree)
+		solver.getPolicy(g);
+
+	    trees.put(size, tree);
+	    solvers.put(size, solver);
+	}
+    }
+
+    /**
+     * Return value and best actions of the specified grid, or null if it is not
+     * one of the solved grids
+     */
+    public Evaluation<Coordinate> get(Grid g) {
+	if (g == null)
+	    throw new NullPointerException("The specified grid must not be null.");
+	if (g.getRows() != g.getColumns())
+	    return null;
+
+	TicTacToeGameTree tree = trees.get(g.getRows());
+	if (tree == null || !tree.contains(g))
+	    return null;
+	return solvers.get(g.getRows()).evaluate(Collections.singletonList(g)).get(0);
+    }
+
+    /**
+     * Return the total number of grids solved
+     */
+    public int size() {
+	int n = 0;
+	for (TicTacToeGameTree t : trees.values())
+	    n += t.size();
+	return n;
+    }
+
+}
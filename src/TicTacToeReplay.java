@@ -0,0 +1,137 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import tictactoe.Coordinate;
+import tictactoe.GameTrace;
+import tictactoe.Grid;
+
+/**
+ * Replay the games of a trace against the solver as fast as possible and report
+ * the throughput, so that the solver is measured on recorded traffic rather
+ * than on made-up positions. The trace is read into memory and the solver
+ * built before the timing starts.
+ * <P>
+ * Usage: {@code java TicTacToeReplay <trace> [runs]}
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class TicTacToeReplay {
+
+    public static void main(String... arg) throws IOException {
+	if (arg.length == 0) {
+	    System.err.println("Usage: java TicTacToeReplay <trace> [runs]");
+	    return;
+	}
+	int runs = arg.length > 1 ? Integer.parseInt(arg[1]) : 5;
+
+	TicTacToeReplay replay = new TicTacToeReplay(GameTrace.read(Paths.get(arg[0])));
+	System.out.println(replay.games.length + " games, " + replay.tree.size() + " grids");
+	for (int run = 1; run <= runs; run++)
+	    System.out.println("run " + run + ": " + replay.run());
+    }
+
+    /**
+     * The initial grid of each game
+     */
+    private final Grid[] initials;
+
+    /**
+     * The events of each game; a cell marked, or null for a query
+     */
+    private final Coordinate[][] games;
+
+    /**
+     * One tree holding the initial grids of all games
+     */
+    private final TicTacToeGameTree tree;
+
+    /**
+     * Solver of the tree
+     */
+    private final TicTacToeSolver solver;
+
+    /**
+     * Build and solve one game tree for all the specified games
+     */
+    public TicTacToeReplay(List<GameTrace.Game> games) {
+	if (games == null)
+	    throw new NullPointerException("The specified games must not be null.");
+	if (games.isEmpty())
+	    throw new IllegalArgumentException("The specified games must not be empty.");
+
+	this.initials = new Grid[games.size()];
+	this.games = new Coordinate[games.size()][];
+	Set<Grid> distinct = new TreeSet<Grid>();
+	for (int i = 0; i < initials.length; i++) {
+	    initials[i] = games.get(i).getInitial();
+	    this.games[i] = games.get(i).getEvents();
+	    distinct.add(initials[i]);
+	}
+
+	this.tree = new TicTacToeGameTree(distinct);
+	this.solver = new TicTacToeSolver(tree);
+	solver.solve();
+    }
+
+    /**
+     * Replay every game once and return the throughput
+     */
+    public Result run() {
+	long moves = 0, queries = 0;
+	int checksum = 0;
+	long start = System.nanoTime();
+	for (int i = 0; i < games.length; i++) {
+	    Grid g = new Grid(initials[i]);
+	    for (Coordinate c : games[i])
+		if (c == null) {
+		    checksum += solver.getPolicy(g).length;
+		    queries++;
+		} else {
+		    g.doAction(c);
+		    moves++;
+		}
+	}
+	return new Result(games.length, moves, queries, System.nanoTime() - start, checksum);
+    }
+
+    /**
+     * Throughput of a replay
+     */
+    public static final class Result {
+
+	/**
+	 * Number of games, actions and queries replayed
+	 */
+	public final long games, moves, queries;
+
+	/**
+	 * Wall time of the replay in nanoseconds
+	 */
+	public final long nanos;
+
+	/**
+	 * Total number of best actions answered, so that the queries cannot be
+	 * optimised away and runs can be compared
+	 */
+	public final int checksum;
+
+	Result(long games, long moves, long queries, long nanos, int checksum) {
+	    this.games = games;
+	    this.moves = moves;
+	    this.queries = queries;
+	    this.nanos = nanos;
+	    this.checksum = checksum;
+	}
+
+	@Override
+	public String toString() {
+	    double seconds = nanos / 1e9;
+	    return String.format("%d ms, %.0f games/s, %.0f moves/s, %.0f queries/s (checksum %d)", nanos / 1_000_000,
+		    games / seconds, moves / seconds, queries / seconds, checksum);
+	}
+    }
+
+}
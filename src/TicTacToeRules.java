@@ -0,0 +1,41 @@
+import solver.Rules;
+import tictactoe.Coordinate;
+import tictactoe.Grid;
+import tictactoe.Mark;
+
+/**
+ * Rules of Noughts-and-Crosses for searches over grids
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class TicTacToeRules extends Rules<Mark, Coordinate, Grid> {
+
+    @Override
+    public final Grid constructNewState(Grid s) {
+	return new Grid(s);
+    }
+
+    /**
+     * A grid is associated with 1 (or -1) if it's a win (or a loss, respectively)
+     * for the specified player; otherwise a zero for a tie
+     */
+    @Override
+    public final float evaluateTerminalState(Grid s, Mark p) {
+	assert s.isTerminated();
+
+	Mark w = s.getWinner();
+	if (w == null)
+	    return 0;
+	else
+	    return w.equals(p) ? 1 : -1;
+    }
+
+    /**
+     * Return the number of empty cells
+     */
+    @Override
+    public final int estimateRemainingActions(Grid s) {
+	return s.countUnmarkedCells();
+    }
+
+}
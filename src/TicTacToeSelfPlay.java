@@ -0,0 +1,302 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import solver.LatencyRecorder;
+import solver.TaskExecutors;
+import tictactoe.Coordinate;
+import tictactoe.GameTrace;
+import tictactoe.Grid;
+import tictactoe.Mark;
+
+/**
+ * A load harness playing many games of Noughts-and-Crosses at once against a
+ * shared solver, either solver against solver or solver against a player
+ * taking random actions. Each game runs on its own thread, virtual if the JVM
+ * has them, and every action of the solver is a call to getPolicy(). It reports
+ * games per second, the latency of the actions of the solver and the rate of
+ * allocation.
+ * <P>
+ * Usage:
+ * {@code java TicTacToeSelfPlay [games] [concurrency] [solver|random] [size] [trace]},
+ * where the games of the timed run are recorded to the trace file if given
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class TicTacToeSelfPlay {
+
+    public static void main(String... arg) throws InterruptedException, IOException {
+	int games = arg.length > 0 ? Integer.parseInt(arg[0]) : 100_000;
+	int concurrency = arg.length > 1 ? Integer.parseInt(arg[1]) : 1000;
+	boolean random = arg.length > 2 && arg[2].equals("random");
+	int size = arg.length > 3 ? Integer.parseInt(arg[3]) : 3;
+
+	TicTacToeSolver solver = new TicTacToeSolver(
+		new TicTacToeGameTree(Arrays.asList(new Grid(Mark.Cross, size), new Grid(Mark.Nought, size))));
+	solver.solve();
+
+	// a short run first, so that the timed run is not spent compiling
+	run(solver, size, Math.min(games, 10_000), concurrency, random);
+	if (arg.length > 4)
+	    try (GameTrace.Writer trace = new GameTrace.Writer(Paths.get(arg[4]))) {
+		System.out.println(run(solver, size, games, concurrency, random, trace));
+	    }
+	else
+	    System.out.println(run(solver, size, games, concurrency, random));
+    }
+
+    private TicTacToeSelfPlay() {
+    }
+
+    /**
+     * Play the specified number of games on grids of the specified size, at most
+     * the specified number at once, and return what was measured. Games start
+     * with either player in turn. Against a random player, the solver plays Cross
+     * in every other game.
+     * 
+     * @param solver a solver of a tree holding both starting grids of the size
+     * @param random true for solver against random; false for solver against
+     *               solver
+     */
+    public static Result run(TicTacToeSolver solver, int size, int games, int concurrency, boolean random)
+	    throws InterruptedException {
+	return run(solver, size, games, concurrency, random, null);
+    }
+
+    /**
+     * Play games as run() does, recording each game to the specified trace
+     */
+    public static Result run(TicTacToeSolver solver, int size, int games, int concurrency, boolean random,
+	    GameTrace.Writer trace) throws InterruptedException {
+	if (solver == null)
+	    throw new NullPointerException("The specified solver must not be null.");
+	if (games <= 0 || concurrency <= 0)
+	    throw new IllegalArgumentException("The specified numbers of games must be positive.");
+
+	Result result = new Result(random);
+	Semaphore permits = new Semaphore(concurrency);
+	ExecutorService executor = TaskExecutors.newPerTaskExecutor("self-play");
+	long start = System.nanoTime();
+	try {
+	    for (int game = 0; game < games; game++) {
+		Mark first = game % 2 == 0 ? Mark.Cross : Mark.Nought;
+		Mark solverMark = random ? (game / 2 % 2 == 0 ? Mark.Cross : Mark.Nought) : null;
+		permits.acquire();
+		executor.execute(() -> {
+		    try {
+			play(solver, new Grid(first, size), solverMark, result, trace);
+		    } catch (Throwable t) {
+			result.failures.increment();
+			throw t;
+		    } finally {
+			permits.release();
+		    }
+		});
+	    }
+	    permits.acquire(concurrency);
+	} finally {
+	    executor.shutdown();
+	    executor.awaitTermination(1, TimeUnit.MINUTES);
+	}
+	result.nanos = System.nanoTime() - start;
+	return result;
+    }
+
+    /**
+     * Play the specified grid to the end. The solver plays both players unless a
+     * mark is specified for it, in which case the other plays at random.
+     */
+    private static void play(TicTacToeSolver solver, Grid g, Mark solverMark, Result result,
+	    GameTrace.Writer trace) {
+	com.sun.management.ThreadMXBean threads = THREADS;
+	long allocated = threads == null ? -1 : threads.getCurrentThreadAllocatedBytes();
+	ThreadLocalRandom random = ThreadLocalRandom.current();
+	GameTrace.Recording recording = null;
+	try {
+	    if (trace != null)
+		recording = trace.newGame(g);
+	} catch (IOException e) {
+	    throw new UncheckedIOException(e);
+	}
+
+	while (!g.isTerminated()) {
+	    Coordinate[] actions;
+	    if (solverMark == null || g.getPlayer() == solverMark) {
+		long start = System.nanoTime();
+		actions = solver.getPolicy(g);
+		result.latency.record(System.nanoTime() - start);
+		if (recording != null)
+		    recording.query();
+	    } else
+		actions = g.getAction();
+
+	    Coordinate c = actions[random.nextInt(actions.length)];
+	    g.doAction(c);
+	    result.moves.increment();
+	    if (recording != null)
+		recording.move(c);
+	}
+
+	Mark w = g.getWinner();
+	if (w == null)
+	    result.ties.increment();
+	else if (solverMark == null || w == solverMark)
+	    result.wins.increment();
+	else
+	    result.losses.increment();
+
+	if (allocated >= 0) {
+	    long after = threads.getCurrentThreadAllocatedBytes();
+	    if (after >= 0)
+		result.allocatedBytes.add(after - allocated);
+	}
+
+	try {
+	    if (recording != null)
+		recording.finish();
+	} catch (IOException e) {
+	    throw new UncheckedIOException(e);
+	}
+    }
+
+    /**
+     * Thread MXBean of the JVM if it measures allocation per thread; otherwise
+     * null
+     */
+    private static final com.sun.management.ThreadMXBean THREADS;
+
+    static {
+	java.lang.management.ThreadMXBean t = ManagementFactory.getThreadMXBean();
+	THREADS = t instanceof com.sun.management.ThreadMXBean
+		&& ((com.sun.management.ThreadMXBean) t).isThreadAllocatedMemorySupported()
+			? (com.sun.management.ThreadMXBean) t
+			: null;
+	if (THREADS != null)
+	    THREADS.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Measurements of a run
+     */
+    public static final class Result {
+
+	/**
+	 * Whether the solver played a random player
+	 */
+	public final boolean random;
+
+	/**
+	 * Games won by the solver (by the first player for solver against solver),
+	 * lost by it, and tied
+	 */
+	final LongAdder wins = new LongAdder(), losses = new LongAdder(), ties = new LongAdder();
+
+	/**
+	 * Actions taken in all games, and games that failed with an exception
+	 */
+	final LongAdder moves = new LongAdder(), failures = new LongAdder();
+
+	/**
+	 * Bytes allocated by the threads playing the games
+	 */
+	final LongAdder allocatedBytes = new LongAdder();
+
+	/**
+	 * Latencies of getPolicy()
+	 */
+	final LatencyRecorder latency = new LatencyRecorder();
+
+	/**
+	 * Wall time of the run in nanoseconds
+	 */
+	long nanos;
+
+	Result(boolean random) {
+	    this.random = random;
+	}
+
+	/**
+	 * Return the number of games played to the end
+	 */
+	public long getGames() {
+	    return wins.sum() + losses.sum() + ties.sum();
+	}
+
+	/**
+	 * Return the number of games the solver won against a random player, or
+	 * decided for solver against solver
+	 */
+	public long getWins() {
+	    return wins.sum();
+	}
+
+	/**
+	 * Return the number of games the solver lost against a random player
+	 */
+	public long getLosses() {
+	    return losses.sum();
+	}
+
+	public long getTies() {
+	    return ties.sum();
+	}
+
+	/**
+	 * Return the number of games that failed with an exception
+	 */
+	public long getFailures() {
+	    return failures.sum();
+	}
+
+	/**
+	 * Return the latencies of the actions of the solver
+	 */
+	public LatencyRecorder getLatency() {
+	    return latency;
+	}
+
+	/**
+	 * Return the number of games played per second
+	 */
+	public double getGamesPerSecond() {
+	    return getGames() * 1e9 / nanos;
+	}
+
+	/**
+	 * Return the number of bytes allocated per second while playing, or a
+	 * negative number if the JVM does not measure it
+	 */
+	public double getAllocationRate() {
+	    return THREADS == null ? -1 : allocatedBytes.sum() * 1e9 / nanos;
+	}
+
+	/**
+	 * Return the number of bytes allocated per action, or a negative number if
+	 * the JVM does not measure it
+	 */
+	public double getBytesPerMove() {
+	    long n = moves.sum();
+	    return THREADS == null ? -1 : n == 0 ? 0 : (double) allocatedBytes.sum() / n;
+	}
+
+	@Override
+	public String toString() {
+	    return String.format(
+		    "%s: %d games in %d ms (%.0f games/s, %d failed); wins=%d losses=%d ties=%d%n"
+			    + "policy latency: p50=%dns p99=%dns p99.9=%dns mean=%.0fns%n"
+			    + "allocation: %.1f MB/s, %.0f bytes/move",
+		    random ? "solver vs random" : "solver vs solver", getGames(), nanos / 1_000_000,
+		    getGamesPerSecond(), getFailures(), getWins(), getLosses(), getTies(), latency.getPercentile(0.5),
+		    latency.getPercentile(0.99), latency.getPercentile(0.999), latency.getMean(),
+		    getAllocationRate() / (1 << 20), getBytesPerMove());
+	}
+    }
+
+}
@@ -0,0 +1,252 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import solver.Evaluation;
+import solver.LatencyRecorder;
+import solver.TaskExecutors;
+import tictactoe.Coordinate;
+import tictactoe.Grid;
+import tictactoe.Mark;
+
+/**
+ * A small HTTP server answering the best actions of Noughts-and-Crosses grids
+ * from a pre-solved cache
+ * <P>
+ * {@code GET /move?board=X--/-O-/---&player=X} returns the value of the grid to
+ * the player and the best actions, e.g.
+ * {@code {"value":0.0,"actions":[[0,1],[1,0]]}}. The player defaults to the one
+ * with fewer marks, Cross on a tie, and the line length to the size of the
+ * grid.
+ * <P>
+ * {@code GET /metrics} returns the number of moves answered, their rate and
+ * their p50 and p99 latency.
+ * <P>
+ * Usage: {@code java TicTacToeServer [port] [sizes]}, e.g. {@code 8080 2,3}
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class TicTacToeServer {
+
+    public static void main(String... arg) throws IOException {
+	int port = arg.length > 0 ? Integer.parseInt(arg[0]) : 8080;
+	String[] s = (arg.length > 1 ? arg[1] : "2,3").split(",");
+	int[] sizes = new int[s.length];
+	for (int i = 0; i < s.length; i++)
+	    sizes[i] = Integer.parseInt(s[i].trim());
+
+	long start = System.nanoTime();
+	TicTacToePolicyCache cache = new TicTacToePolicyCache(sizes);
+	TicTacToeServer server = new TicTacToeServer(new InetSocketAddress(port), cache);
+	server.start();
+	System.out.println("Solved " + cache.size() + " grids in " + (System.nanoTime() - start) / 1_000_000
+		+ " ms; listening on port " + server.getPort()
+		+ (TaskExecutors.hasVirtualThreads() ? " with virtual threads" : ""));
+    }
+
+    /**
+     * The HTTP server
+     */
+    private final HttpServer server;
+
+    /**
+     * Threads handling the requests
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Solved grids
+     */
+    private final TicTacToePolicyCache cache;
+
+    /**
+     * Latencies of the moves answered
+     */
+    private final LatencyRecorder latency = new LatencyRecorder();
+
+    /**
+     * Construct a server bound to the specified address, with port 0 for any free
+     * port, answering from the specified cache. It does not accept requests until
+     * started.
+     */
+    public TicTacToeServer(InetSocketAddress address, TicTacToePolicyCache cache) throws IOException {
+	if (address == null)
+	    throw new NullPointerException("The specified address must not be null.");
+	if (cache == null)
+	    throw new NullPointerException("The specified cache must not be null.");
+
+	this.cache = cache;
+	this.executor = TaskExecutors.newPerTaskExecutor("tictactoe-http");
+	this.server = HttpServer.create(address, 0);
+	server.setExecutor(executor);
+	server.createContext("/move", this::handleMove);
+	server.createContext("/metrics", this::handleMetrics);
+    }
+
+    /**
+     * Start accepting requests
+     */
+    public void start() {
+	server.start();
+    }
+
+    /**
+     * Stop accepting requests, waiting up to the specified seconds for those
+     * being handled
+     */
+    public void stop(int seconds) {
+	server.stop(seconds);
+	executor.shutdown();
+    }
+
+    /**
+     * Return the port the server is bound to
+     */
+    public int getPort() {
+	return server.getAddress().getPort();
+    }
+
+    /**
+     * Return the latencies of the moves answered
+     */
+    public LatencyRecorder getLatency() {
+	return latency;
+    }
+
+    /**
+     * Answer the value and best actions of a grid
+     */
+    private void handleMove(HttpExchange exchange) throws IOException {
+	long start = System.nanoTime();
+	try {
+	    if (!exchange.getRequestMethod().equals("GET")) {
+		send(exchange, 405, error("Only GET is allowed."));
+		return;
+	    }
+
+	    Grid g;
+	    try {
+		g = parseGrid(parseQuery(exchange.getRequestURI().getRawQuery()));
+	    } catch (IllegalArgumentException e) {
+		send(exchange, 400, error(e.getMessage()));
+		return;
+	    }
+
+	    Evaluation<Coordinate> e = cache.get(g);
+	    if (e == null) {
+		send(exchange, 404, error("The grid is not one of the solved grids."));
+		return;
+	    }
+
+	    StringBuilder json = new StringBuilder();
+	    json.append("{\"value\":").append(e.value).append(",\"actions\":[");
+	    if (e.actions != null)
+		for (int a = 0; a < e.actions.length; a++)
+		    json.append(a == 0 ? "" : ",").append('[').append(e.actions[a].row).append(',')
+			    .append(e.actions[a].column).append(']');
+	    json.append("]}");
+	    send(exchange, 200, json.toString());
+	} finally {
+	    latency.record(System.nanoTime() - start);
+	}
+    }
+
+    /**
+     * Answer the counters of the moves answered
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+	send(exchange, 200,
+		"{\"count\":" + latency.getCount() + ",\"qps\":" + latency.getRate() + ",\"p50Micros\":"
+			+ latency.getPercentile(0.5) / 1000.0 + ",\"p99Micros\":" + latency.getPercentile(0.99) / 1000.0
+			+ ",\"meanMicros\":" + latency.getMean() / 1000 + "}");
+    }
+
+    /**
+     * Return the grid described by the specified query
+     */
+    private static Grid parseGrid(Map<String, String> query) {
+	String board = query.get("board");
+	if (board == null)
+	    throw new IllegalArgumentException("The board is missing.");
+	return parseGrid(board, query.get("player"), query.get("k"));
+    }
+
+    /**
+     * Return the grid of the specified text form, with the specified player (X or
+     * O) and line length, either of which may be null. The player defaults to the
+     * one with fewer marks, Cross on a tie, and the line length to the number of
+     * columns.
+     */
+    static Grid parseGrid(String board, String player, String k) {
+	Mark p;
+	if (player == null) {
+	    int x = 0, o = 0;
+	    for (char c : board.toUpperCase().toCharArray())
+		if (c == 'X')
+		    x++;
+		else if (c == 'O')
+		    o++;
+	    p = o < x ? Mark.Nought : Mark.Cross;
+	} else if (player.equalsIgnoreCase("X"))
+	    p = Mark.Cross;
+	else if (player.equalsIgnoreCase("O"))
+	    p = Mark.Nought;
+	else
+	    throw new IllegalArgumentException("The player must be X or O.");
+
+	int length;
+	try {
+	    length = k != null ? Integer.parseInt(k) : board.indexOf('/') < 0 ? board.length() : board.indexOf('/');
+	} catch (NumberFormatException e) {
+	    throw new IllegalArgumentException("The line length must be a number.");
+	}
+	return Grid.parse(board, p, length);
+    }
+
+    /**
+     * Return the parameters of the specified raw query
+     * 
+     * @throws IllegalArgumentException if the query has a malformed escape
+     */
+    static Map<String, String> parseQuery(String raw) {
+	Map<String, String> query = new HashMap<String, String>();
+	if (raw == null)
+	    return query;
+
+	for (String pair : raw.split("&")) {
+	    int i = pair.indexOf('=');
+	    if (i > 0)
+		query.put(URLDecoder.decode(pair.substring(0, i), StandardCharsets.UTF_8),
+			URLDecoder.decode(pair.substring(i + 1), StandardCharsets.UTF_8));
+	}
+	return query;
+    }
+
+    /**
+     * Return a JSON object holding the specified error message
+     */
+    private static String error(String message) {
+	return "{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    /**
+     * Send the specified JSON with the specified status code
+     */
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+	byte[] body = json.getBytes(StandardCharsets.UTF_8);
+	exchange.getResponseHeaders().set("Content-Type", "application/json");
+	exchange.sendResponseHeaders(status, body.length);
+	try (OutputStream out = exchange.getResponseBody()) {
+	    out.write(body);
+	}
+    }
+
+}
@@ -0,0 +1,103 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import solver.LatencyRecorder;
+
+/**
+ * A collection of tests on the HTTP server of best actions
+ * 
+ * @author Tin Leelavimolsilp
+ */
+class TicTacToeServerTest {
+
+    private static TicTacToeServer server;
+
+    @BeforeAll
+    static void start() throws IOException {
+	server = new TicTacToeServer(new InetSocketAddress("localhost", 0), new TicTacToePolicyCache(2, 3));
+	server.start();
+    }
+
+    @AfterAll
+    static void stop() {
+	server.stop(0);
+    }
+
+    /**
+     * Return the status code and body of a GET request to the specified path
+     */
+    private static String get(String path) throws IOException {
+	HttpURLConnection c = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path)
+		.openConnection();
+	InputStream in = c.getResponseCode() < 400 ? c.getInputStream() : c.getErrorStream();
+	try (in) {
+	    return c.getResponseCode() + " " + new String(in.readAllBytes(), StandardCharsets.UTF_8);
+	}
+    }
+
+    @Test
+    void testMove() throws IOException, InterruptedException {
+
+	// cross wins by taking a corner next to nought
+	assertEquals("200 {\"value\":1.0,\"actions\":[[1,0],[1,1],[2,0]]}", get("/move?board=XO-/---/---&player=X"));
+	assertEquals("200 {\"value\":0.0,\"actions\":[[0,0],[0,2],[2,0],[2,2]]}", get("/move?board=---/-X-/---"));
+	assertEquals("200 {\"value\":-1.0,\"actions\":[]}", get("/move?board=XXX/OO-/---"));
+
+	assertTrue(get("/move?board=X--/-Q-/---").startsWith("400 "));
+	assertTrue(get("/move").startsWith("400 "));
+	assertTrue(get("/move?board=%zz").startsWith("400 "));
+	assertThrows(IllegalArgumentException.class, () -> TicTacToeServer.parseQuery("board=%zz"));
+	assertEquals("X--/---/---", TicTacToeServer.parseQuery("board=X--%2F---%2F---").get("board"));
+	assertTrue(get("/move?board=----/----/----/----").startsWith("404 "));
+
+	// a latency is recorded once its response is sent, which the client may see
+	// first; the malformed URI is refused before it reaches the handler
+	long deadline = System.nanoTime() + 5_000_000_000L;
+	while (server.getLatency().getCount() < 6 && System.nanoTime() < deadline)
+	    Thread.sleep(1);
+	assertEquals(6, server.getLatency().getCount());
+	assertTrue(get("/metrics").startsWith("200 {\"count\":"));
+    }
+
+    @Test
+    void testLatencyRecorder() {
+	LatencyRecorder r = new LatencyRecorder();
+	assertEquals(0, r.getPercentile(0.5));
+	assertEquals(0, r.getMean());
+	assertThrows(IllegalArgumentException.class, () -> r.record(-1));
+	assertThrows(IllegalArgumentException.class, () -> r.getPercentile(1.5));
+
+	// small latencies are counted exactly, larger ones within a sixteenth
+	long[] latencies = { 0, 1, 15, 16, 17, 31, 32, 1000, 1023, 1024, 123_456_789, Long.MAX_VALUE };
+	for (long nanos : latencies) {
+	    LatencyRecorder one = new LatencyRecorder();
+	    one.record(nanos);
+	    long p = one.getPercentile(1);
+	    assertTrue(p >= nanos && p - nanos <= nanos / 16, nanos + " counted as " + p);
+	}
+
+	for (long nanos = 1; nanos <= 1000; nanos++)
+	    r.record(nanos);
+	assertEquals(1000, r.getCount());
+	assertEquals(500.5, r.getMean());
+	assertEquals(1, r.getPercentile(0));
+	assertTrue(r.getPercentile(0.5) >= 500 && r.getPercentile(0.5) <= 500 + 500 / 16, r.toString());
+	assertTrue(r.getPercentile(0.99) >= 990 && r.getPercentile(0.99) <= 990 + 990 / 16, r.toString());
+	assertTrue(r.getPercentile(1) >= 1000 && r.getPercentile(1) <= 1000 + 1000 / 16, r.toString());
+
+	r.reset();
+	assertEquals(0, r.getCount());
+	assertEquals(0, r.getPercentile(0.99));
+    }
+
+}
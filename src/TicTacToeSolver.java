@@ -1,9 +1,15 @@
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import solver.Evaluation;
 import solver.GameTree;
+import solver.ProgressListener;
 import solver.Solver;
 import tictactoe.Coordinate;
 import tictactoe.Grid;
@@ -17,6 +23,13 @@ import tictactoe.Mark;
 public class TicTacToeSolver extends Solver<Mark, Coordinate, Grid, TicTacToeGameTree> {
 
     public static void main(String... arg) {
+
+	// evaluate positions in bulk if asked to
+	if (arg.length > 0 && arg[0].equals("--batch")) {
+	    TicTacToeBatchEvaluator.main(Arrays.copyOfRange(arg, 1, arg.length));
+	    return;
+	}
+
 	try {
 
 	    // init the initial state
@@ -57,6 +70,43 @@ public class TicTacToeSolver extends Solver<Mark, Coordinate, Grid, TicTacToeGam
 	super(t);
     }
 
+    private TicTacToeSolver(TicTacToeSolver s, TicTacToeGameTree t) {
+	super(s, t);
+    }
+
+    /**
+     * Return a solver rooted at the specified grid, typically the grid after an
+     * action on the current root, without building or solving a new tree
+     */
+    @Override
+    public final TicTacToeSolver reroot(Grid g) {
+	return new TicTacToeSolver(this, tree.reroot(g));
+    }
+
+    /**
+     * Build the game tree of the specified grid and solve it on the specified
+     * executor, such as a pool of virtual threads, and complete the returned
+     * future with the solver. Cancelling the future aborts the work at the next
+     * report of progress.
+     */
+    public static CompletableFuture<TicTacToeSolver> buildAndSolveAsync(Grid g, Executor executor,
+	    ProgressListener progress) {
+	Grid root = new Grid(g);
+	return supplyAsync(p -> {
+	    TicTacToeSolver s = new TicTacToeSolver(new TicTacToeGameTree(root, p));
+	    s.solve(p);
+	    return s;
+	}, executor, progress);
+    }
+
+    /**
+     * Solve all the specified grids over one shared game tree and return the value
+     * and best actions of each grid, in the same order
+     */
+    public static List<Evaluation<Coordinate>> solveBatch(Collection<Grid> grids) {
+	return Solver.solveBatch(grids, TicTacToeGameTree::new, TicTacToeSolver::new);
+    }
+
     @Override
     protected final Mark getOpponent(Mark p) {
 	switch (p) {
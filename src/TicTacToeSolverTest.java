@@ -1,8 +1,55 @@
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import solver.AlphaBetaSearch;
+import solver.Checkpoint;
+import solver.Evaluation;
+import solver.GameTree;
+import solver.HybridSearch;
+import solver.MemoryBudget;
+import solver.MonteCarloSearch;
+import solver.ProgressListener;
+import solver.Strategy;
 import tictactoe.Coordinate;
 import tictactoe.Grid;
 import tictactoe.Mark;
@@ -46,4 +93,522 @@ class TicTacToeSolverTest {
 
     }
 
+    @Test
+    void testRerootedSolver() {
+
+	// a rerooted solver agrees with a solver of a freshly built tree
+	Grid g = new Grid(Mark.Cross, 3);
+	TicTacToeSolver s = new TicTacToeSolver(new TicTacToeGameTree(g));
+	assertEquals(0, s.solve());
+
+	Coordinate[] moves = { new Coordinate(0, 0), new Coordinate(0, 1), new Coordinate(1, 1) };
+	for (Coordinate c : moves) {
+	    g.doAction(c);
+	    s = s.reroot(new Grid(g));
+	    TicTacToeSolver fresh = new TicTacToeSolver(new TicTacToeGameTree(new Grid(g)));
+	    assertEquals(fresh.solve(), s.solve());
+	    assertEquals(fresh.getWinner(), s.getWinner());
+	    assertArrayEquals(fresh.getPolicy(g), s.getPolicy(g));
+	}
+    }
+
+    @Test
+    void testStreams() {
+	TicTacToeGameTree t = new TicTacToeGameTree(new Grid(Mark.Cross, 3));
+	List<Grid> states = t.stream().collect(Collectors.toList());
+	assertEquals(t.size(), states.size());
+	assertEquals(states, t.parallelStream().collect(Collectors.toList()));
+
+	// an edge for each action of each non-terminal state, leading to its result
+	long actions = t.stream().filter(g -> !g.isTerminated()).mapToLong(g -> t.getActions(g).length).sum();
+	List<GameTree.Edge<Coordinate, Grid>> edges = t.edges().collect(Collectors.toList());
+	assertEquals(actions, edges.size());
+	for (GameTree.Edge<Coordinate, Grid> e : edges) {
+	    Grid g = new Grid(e.source);
+	    g.doAction(e.action);
+	    assertEquals(g, e.destination);
+	}
+
+	List<GameTree.Edge<Coordinate, Grid>> parallel = t.parallelEdges().collect(Collectors.toList());
+	assertEquals(edges.size(), parallel.size());
+	for (int i = 0; i < edges.size(); i++) {
+	    assertSame(edges.get(i).source, parallel.get(i).source);
+	    assertSame(edges.get(i).action, parallel.get(i).action);
+	    assertSame(edges.get(i).destination, parallel.get(i).destination);
+	}
+    }
+
+    @Test
+    void testMBeans() throws JMException {
+	TicTacToeGameTree t = new TicTacToeGameTree(new Grid(Mark.Cross, 3));
+	TicTacToeSolver s = new TicTacToeSolver(t);
+	assertEquals(0, s.solve());
+
+	MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+	ObjectName tree = t.registerMBean("testMBeans");
+	ObjectName solver = s.registerMBean("testMBeans");
+	try {
+	    assertEquals(5478, server.getAttribute(tree, "NodeCount"));
+	    double hitRate = (Double) server.getAttribute(tree, "TranspositionHitRate");
+	    assertTrue(hitRate > 0 && hitRate < 1, "hit rate " + hitRate);
+	    assertEquals(true, server.getAttribute(solver, "Solved"));
+	} finally {
+	    server.unregisterMBean(tree);
+	    server.unregisterMBean(solver);
+	}
+    }
+
+    @Test
+    void testFlightRecorderEvents(@TempDir Path dir) throws IOException {
+	Path file = dir.resolve("solver.jfr");
+	try (Recording recording = new Recording()) {
+	    recording.enable("solver.TreeBuild").withoutThreshold();
+	    recording.enable("solver.Solve").withoutThreshold();
+	    recording.start();
+	    assertEquals(0, new TicTacToeSolver(new TicTacToeGameTree(new Grid(Mark.Cross, 3))).solve());
+	    recording.stop();
+	    recording.dump(file);
+	}
+
+	List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+	RecordedEvent build = events.stream().filter(e -> e.getEventType().getName().equals("solver.TreeBuild"))
+		.findFirst().orElseThrow();
+	assertEquals(9, build.getInt("boardSize"));
+	assertEquals(5478, build.getInt("nodes"));
+	assertTrue(build.getLong("edges") > 5478);
+	assertFalse(build.getBoolean("truncated"));
+
+	RecordedEvent solve = events.stream().filter(e -> e.getEventType().getName().equals("solver.Solve"))
+		.findFirst().orElseThrow();
+	assertEquals(9, solve.getInt("boardSize"));
+	assertEquals(5478, solve.getInt("nodes"));
+	assertEquals(0, solve.getFloat("value"));
+    }
+
+    @Test
+    void testMemoryBudget() throws IOException {
+
+	// a budget the tree fits in changes nothing
+	TicTacToeGameTree t = new TicTacToeGameTree(new Grid(Mark.Cross, 3), ProgressListener.NONE,
+		new MemoryBudget(64 << 20, MemoryBudget.Policy.ABORT));
+	assertFalse(t.isTruncated());
+	assertEquals(5478, t.size());
+
+	// an oversized tree is refused before it is built
+	assertThrows(IllegalStateException.class, () -> new TicTacToeGameTree(new Grid(Mark.Cross, 5),
+		ProgressListener.NONE, new MemoryBudget(64 << 20, MemoryBudget.Policy.ABORT)));
+
+	// or cut short, leaving non-terminal states without actions
+	TicTacToeGameTree cut = new TicTacToeGameTree(new Grid(Mark.Cross, 3), ProgressListener.NONE,
+		new MemoryBudget(100_000, MemoryBudget.Policy.TRUNCATE));
+	assertTrue(cut.isTruncated());
+	assertTrue(cut.size() < 5478);
+	assertTrue(cut.stream().anyMatch(g -> !g.isTerminated() && cut.getActions(g) == null));
+	float v = new TicTacToeSolver(cut).solve();
+	assertTrue(v >= -1 && v <= 1);
+	assertPrinted(cut);
+    }
+
+    @Test
+    void testDepthLimit() throws IOException {
+	Grid g = new Grid(Mark.Cross, 3);
+
+	// the grids after two actions are left as the frontier
+	TicTacToeGameTree t = new TicTacToeGameTree(g, 2);
+	assertTrue(t.isTruncated());
+	assertEquals(1 + 9 + 72, t.size());
+	List<Grid> frontier = t.getFrontier();
+	assertEquals(72, frontier.size());
+	for (Grid f : frontier) {
+	    assertEquals(7, f.countUnmarkedCells());
+	    assertFalse(f.isTerminated());
+	    assertNull(t.getActions(f));
+	}
+	Grid next = t.getDestinationState(g, new Coordinate(1, 1));
+	assertEquals(8, t.getActions(next).length);
+	assertTrue(frontier.contains(t.getDestinationState(next, new Coordinate(0, 0))));
+	assertPrinted(t);
+
+	// the frontier can be solved separately
+	List<Evaluation<Coordinate>> values = TicTacToeSolver.solveBatch(frontier);
+	for (int i = 0; i < frontier.size(); i++)
+	    assertEquals(new TicTacToeSolver(new TicTacToeGameTree(new Grid(frontier.get(i)))).solve(),
+		    values.get(i).value);
+
+	// the root alone, or the whole tree
+	assertEquals(Collections.singletonList(g), new TicTacToeGameTree(g, 0).getFrontier());
+	TicTacToeGameTree full = new TicTacToeGameTree(g, 9);
+	assertFalse(full.isTruncated());
+	assertTrue(full.getFrontier().isEmpty());
+	assertEquals(new TicTacToeGameTree(g), full);
+    }
+
+    @Test
+    void testCheckpoint(@TempDir Path dir) {
+	Grid g = new Grid(Mark.Cross, 3);
+	TicTacToeGameTree fresh = new TicTacToeGameTree(new Grid(g));
+	Checkpoint checkpoint = new Checkpoint(dir, Duration.ZERO);
+
+	// a run cut short saves the states found so far, and the next run resumes
+	TicTacToeGameTree cut = new TicTacToeGameTree(Collections.singletonList(new Grid(g)), ProgressListener.NONE,
+		new MemoryBudget(100_000, MemoryBudget.Policy.TRUNCATE), checkpoint);
+	assertTrue(cut.isTruncated());
+	TicTacToeGameTree t = new TicTacToeGameTree(new Grid(g), ProgressListener.NONE, checkpoint);
+	assertFalse(t.isTruncated());
+	assertEquals(fresh, t);
+
+	// a solve stopped half way resumes from the values saved
+	ProgressListener crash = new ProgressListener() {
+
+	    @Override
+	    public void nodesSolved(int solved, int total) {
+		if (solved > total / 2)
+		    throw new CancellationException();
+	    }
+	};
+	assertThrows(CancellationException.class, () -> new TicTacToeSolver(t).solve(crash, checkpoint));
+	int[] resumed = new int[1];
+	TicTacToeSolver s = new TicTacToeSolver(t);
+	assertEquals(0, s.solve(new ProgressListener() {
+
+	    @Override
+	    public void nodesSolved(int solved, int total) {
+		if (resumed[0] == 0)
+		    resumed[0] = solved;
+	    }
+	}, checkpoint));
+	assertTrue(resumed[0] > t.size() / 2);
+	TicTacToeSolver expected = new TicTacToeSolver(fresh);
+	for (Grid state : t)
+	    assertArrayEquals(expected.getPolicy(state), s.getPolicy(state));
+
+	// a checkpoint of another tree is refused
+	assertThrows(IllegalStateException.class,
+		() -> new TicTacToeGameTree(new Grid(Mark.Nought, 3), ProgressListener.NONE, checkpoint));
+    }
+
+    @Test
+    void testCheckpointOfDepthLimit(@TempDir Path dir) {
+	Grid g = new Grid(Mark.Cross, 3);
+	Checkpoint checkpoint = new Checkpoint(dir, Duration.ZERO);
+
+	// a run cut short while expanding the third layer leaves grids of depth 3
+	// and 4 to resume from, of which only the former may be expanded
+	TicTacToeGameTree cut = new TicTacToeGameTree(Collections.singletonList(new Grid(g)), ProgressListener.NONE,
+		new MemoryBudget(150_000, MemoryBudget.Policy.TRUNCATE), checkpoint, 4);
+	assertTrue(cut.getFrontier().stream().anyMatch(f -> f.countUnmarkedCells() == 6));
+	assertTrue(cut.getFrontier().stream().anyMatch(f -> f.countUnmarkedCells() == 5));
+
+	TicTacToeGameTree t = new TicTacToeGameTree(Collections.singletonList(new Grid(g)), ProgressListener.NONE,
+		MemoryBudget.UNLIMITED, checkpoint, 4);
+	assertEquals(new TicTacToeGameTree(new Grid(g), 4), t);
+	assertTrue(t.stream().allMatch(f -> f.countUnmarkedCells() >= 5));
+    }
+
+    @Test
+    void testDistributedSolve() throws Exception {
+
+	// worker JVMs agree with a solver in this JVM
+	Grid g = new Grid(Mark.Cross, 3);
+	g.doAction(new Coordinate(0, 0));
+	g.doAction(new Coordinate(0, 1));
+	TicTacToeSolver s = new TicTacToeSolver(new TicTacToeGameTree(new Grid(g)));
+	TicTacToeCoordinator.Result r = TicTacToeCoordinator.solve(g, 2, 2);
+	assertThrows(IllegalArgumentException.class, () -> TicTacToeCoordinator.solve(g, 2, 0));
+	assertEquals(s.solve(), r.value);
+	assertArrayEquals(s.getPolicy(g), r.actions);
+    }
+
+    @Test
+    void testSelfPlay() throws InterruptedException {
+	TicTacToeSolver s = new TicTacToeSolver(
+		new TicTacToeGameTree(Arrays.asList(new Grid(Mark.Cross, 3), new Grid(Mark.Nought, 3))));
+
+	// perfect play always ties, and never loses to random play
+	TicTacToeSelfPlay.Result r = TicTacToeSelfPlay.run(s, 3, 1000, 100, false);
+	assertEquals(1000, r.getGames());
+	assertEquals(1000, r.getTies());
+	r = TicTacToeSelfPlay.run(s, 3, 1000, 100, true);
+	assertEquals(1000, r.getGames());
+	assertEquals(0, r.getLosses());
+	assertEquals(0, r.getFailures());
+	assertTrue(r.getLatency().getCount() > 0);
+    }
+
+    @Test
+    void testPolicyIterator() {
+	TicTacToeGameTree t = new TicTacToeGameTree(new Grid(Mark.Cross, 3));
+	TicTacToeSolver s = new TicTacToeSolver(t);
+	assertEquals(0, s.solve());
+
+	// every state in natural order, with the same best actions as getPolicy()
+	Iterator<Grid> states = t.iterator();
+	Grid previous = null;
+	for (Entry<Grid, Coordinate[]> e : s) {
+	    Grid g = e.getKey();
+	    assertSame(states.next(), g);
+	    assertTrue(previous == null || previous.compareTo(g) < 0);
+	    previous = g;
+	    if (g.isTerminated())
+		assertNull(e.getValue());
+	    else
+		assertTrue(e.getValue().length > 0);
+	    assertArrayEquals(s.getPolicy(g), e.getValue());
+	}
+	assertFalse(states.hasNext());
+
+	// more than 64 actions take several words of the policy; only the two
+	// actions completing a line of three are best
+	Grid g = Grid.parse("---------/---------/---------/---------/---------/---------/---------/---------/------XX-",
+		Mark.Cross, 3);
+	TicTacToeSolver wide = new TicTacToeSolver(new TicTacToeGameTree(g, 1));
+	assertEquals(1, wide.solve());
+	Coordinate[] best = { new Coordinate(8, 5), new Coordinate(8, 8) };
+	assertArrayEquals(best, wide.getPolicy(g));
+	for (Entry<Grid, Coordinate[]> e : wide)
+	    if (e.getKey().equals(g))
+		assertArrayEquals(best, e.getValue());
+	    else
+		assertNull(e.getValue());
+    }
+
+    @Test
+    void testSolveBatch() {
+
+	// overlapping grids, some with the other player to move, a duplicate and a
+	// terminal one, all agree with a solver of their own tree
+	List<Grid> grids = Arrays.asList(new Grid(Mark.Cross, 3), Grid.parse("---/-X-/---", Mark.Nought, 3),
+		Grid.parse("XO-/---/---", Mark.Cross, 3), Grid.parse("XO-/-X-/---", Mark.Nought, 3),
+		new Grid(Mark.Nought, 3), Grid.parse("XO-/-X-/---", Mark.Nought, 3),
+		Grid.parse("XXX/OO-/---", Mark.Nought, 3));
+	List<Evaluation<Coordinate>> batch = TicTacToeSolver.solveBatch(grids);
+	assertEquals(grids.size(), batch.size());
+	for (int i = 0; i < grids.size(); i++) {
+	    Grid g = grids.get(i);
+	    TicTacToeSolver alone = new TicTacToeSolver(new TicTacToeGameTree(new Grid(g)));
+	    assertEquals(alone.solve(), batch.get(i).value, g.toString());
+	    assertArrayEquals(alone.getPolicy(g), batch.get(i).actions, g.toString());
+	}
+	assertEquals(-1, batch.get(3).value);
+	assertEquals(1, batch.get(2).value);
+	assertEquals(-1, batch.get(6).value);
+	assertNull(batch.get(6).actions);
+    }
+
+    @Test
+    void testBatchEvaluator() throws Exception {
+	String[] lines = { "X--/-O-/--- X", "XO-/---/---", "---/-X-/---", "XXX/OO-/---", "X--/-Q-/---", "",
+		"X---/----/----/----" };
+	String[] expected = { "X--/-O-/--- X\t0.0\t0,1 0,2 1,0 1,2 2,0 2,1 2,2", "XO-/---/---\t1.0\t1,0 1,1 2,0",
+		"---/-X-/---\t0.0\t0,0 0,2 2,0 2,2", "XXX/OO-/---\t-1.0\t", "X--/-Q-/---\terror\t", "\terror\t",
+		"X---/----/----/----\terror\t" };
+
+	// enough lines for several chunks, so that the order across chunks is tested
+	StringBuilder input = new StringBuilder();
+	int n = 3 * TicTacToeBatchEvaluator.CHUNK + 1;
+	for (int i = 0; i < n; i++)
+	    input.append(lines[i % lines.length]).append('\n');
+
+	StringWriter output = new StringWriter();
+	ExecutorService executor = Executors.newFixedThreadPool(2);
+	try {
+	    assertEquals(n, TicTacToeBatchEvaluator.evaluate(new BufferedReader(new StringReader(input.toString())),
+		    output, new TicTacToePolicyCache(3), executor, 1));
+	} finally {
+	    executor.shutdown();
+	}
+
+	String[] results = output.toString().split("\n", -1);
+	assertEquals(n + 1, results.length);
+	for (int i = 0; i < n; i++)
+	    assertTrue(results[i].startsWith(expected[i % expected.length]), results[i]);
+    }
+
+    @Test
+    void testStrategy() throws IOException {
+	for (int size = 2; size <= 3; size++)
+	    for (Mark m : Mark.values()) {
+		if (m == Mark.Unmarked)
+		    continue;
+
+		Grid g = new Grid(m, size);
+		TicTacToeSolver s = new TicTacToeSolver(new TicTacToeGameTree(g));
+		float value = s.solve();
+		Strategy<Mark, Coordinate, Grid> strategy = s.extractStrategy();
+
+		// the 3x3 strategy is about 67 times smaller than the tree
+		int nodes = s.getMetrics().getTree().getNodeCount();
+		assertTrue(strategy.size() * (size == 3 ? 50 : 5) < nodes, strategy.size() + " of " + nodes + " states");
+
+		// the strategy is loaded back and played against every reply
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		strategy.write(new DataOutputStream(bytes));
+		assertEquals(strategy.getByteCount(), bytes.size());
+		Strategy<Mark, Coordinate, Grid> loaded = Strategy
+			.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(strategy.size(), loaded.size());
+		assertWorstOutcome(loaded, g, m, value);
+	    }
+
+	// a tree cut short has no strategy to secure its value
+	TicTacToeSolver cut = new TicTacToeSolver(new TicTacToeGameTree(new Grid(Mark.Cross, 3), 4));
+	cut.solve();
+	assertThrows(IllegalStateException.class, () -> cut.extractStrategy());
+    }
+
+    /**
+     * Print the specified tree and assert that a file is written for each state,
+     * listing the destinations of those with actions only. The folder is removed
+     * afterwards unless it already existed.
+     */
+    private static void assertPrinted(TicTacToeGameTree t) throws IOException {
+	Path dir = Paths.get(GameTree.DIR_PATHNAME);
+	boolean existed = Files.exists(dir);
+	try {
+	    t.print();
+	    int s = 0;
+	    for (Grid g : t) {
+		long lines = Files.readAllLines(dir.resolve(Integer.toString(s++))).size();
+		int successors = t.getActions(g) == null ? 0 : t.getActions(g).length;
+		assertEquals(g.getRows() + 3 + successors * (g.getRows() + 1), lines, g.toString());
+	    }
+	} finally {
+	    if (!existed && Files.exists(dir)) {
+		try (Stream<Path> files = Files.list(dir)) {
+		    for (Path f : (Iterable<Path>) files::iterator)
+			Files.delete(f);
+		}
+		Files.delete(dir);
+	    }
+	}
+    }
+
+    /**
+     * Assert that the specified strategy of the specified player secures at least
+     * the specified value from the specified grid whatever the opponent does
+     */
+    private static void assertWorstOutcome(Strategy<Mark, Coordinate, Grid> strategy, Grid g, Mark m, float value) {
+	if (g.isTerminated()) {
+	    Mark w = g.getWinner();
+	    assertTrue((w == null ? 0 : w == m ? 1 : -1) >= value, g.toString());
+	    return;
+	}
+
+	if (g.getPlayer() == m) {
+	    Coordinate c = strategy.getAction(g);
+	    assertNotNull(c, g.toString());
+	    g.doAction(c);
+	    assertWorstOutcome(strategy, g, m, value);
+	    g.undoAction(c);
+	} else
+	    for (Coordinate c : g.getAction()) {
+		g.doAction(c);
+		assertWorstOutcome(strategy, g, m, value);
+		g.undoAction(c);
+	    }
+    }
+
+    @Test
+    void testHybridSearch() {
+	TicTacToeRules rules = new TicTacToeRules();
+	HybridSearch<Mark, Coordinate, Grid> search = new HybridSearch<Mark, Coordinate, Grid>(rules, 4,
+		new AlphaBetaSearch<Mark, Coordinate, Grid>(rules, 1, 16), new MonteCarloSearch<Mark, Coordinate, Grid>(
+			rules, Duration.ofMillis(50), 20_000, new SplittableRandom(7)));
+
+	// the endgame is solved exactly
+	Grid g = Grid.parse("XOX/-O-/--X", Mark.Nought, 3);
+	assertTrue(search.isExact(g));
+	Evaluation<Coordinate> e = search.evaluate(g), solved = TicTacToeSolver
+		.solveBatch(Collections.singletonList(g)).get(0);
+	assertEquals(solved.value, e.value);
+	assertTrue(Arrays.asList(solved.actions).contains(e.actions[0]));
+
+	// earlier on, an immediate win is found by playouts
+	g = Grid.parse("XX-/OO-/---", Mark.Cross, 3);
+	assertFalse(search.isExact(g));
+	e = search.evaluate(g);
+	assertEquals(new Coordinate(0, 2), e.actions[0]);
+	assertTrue(e.value > 0);
+
+	// a grid far too large to solve is answered within the budget
+	g = new Grid(Mark.Cross, 6, 6, 4);
+	long start = System.nanoTime();
+	e = search.evaluate(g);
+	assertTrue(System.nanoTime() - start < 1_000_000_000L);
+	assertTrue(Arrays.asList(g.getAction()).contains(e.actions[0]));
+	assertEquals(36, g.countUnmarkedCells());
+    }
+
+    @Test
+    void testSolveAsync() throws Exception {
+	Grid g = new Grid(Mark.Cross, 3);
+	AtomicInteger built = new AtomicInteger(), solved = new AtomicInteger(), total = new AtomicInteger();
+	ProgressListener progress = new ProgressListener() {
+
+	    @Override
+	    public void nodesBuilt(int nodes) {
+		built.set(nodes);
+	    }
+
+	    @Override
+	    public void nodesSolved(int n, int t) {
+		solved.set(n);
+		total.set(t);
+	    }
+	};
+
+	ExecutorService executor = Executors.newSingleThreadExecutor();
+	try {
+
+	    // the tree is built and solved on the executor, reporting its progress
+	    TicTacToeSolver s = TicTacToeSolver.buildAndSolveAsync(g, executor, progress).get(1, TimeUnit.MINUTES);
+	    assertTrue(s.solved());
+	    assertEquals(5478, built.get());
+	    assertEquals(5478, solved.get());
+	    assertEquals(5478, total.get());
+
+	    // a policy is answered by a solver that has yet to be solved
+	    TicTacToeSolver fresh = new TicTacToeSolver(new TicTacToeGameTree(g));
+	    assertArrayEquals(s.getPolicy(g), fresh.getPolicyAsync(g, executor).get(1, TimeUnit.MINUTES));
+	    assertEquals(0, fresh.solveAsync(executor).get(1, TimeUnit.MINUTES));
+	} finally {
+	    executor.shutdown();
+	}
+    }
+
+    @Test
+    void testCancelSolveAsync() throws Exception {
+	TicTacToeSolver s = new TicTacToeSolver(new TicTacToeGameTree(new Grid(Mark.Cross, 3)));
+	CountDownLatch reached = new CountDownLatch(1), cancelled = new CountDownLatch(1);
+	AtomicInteger reports = new AtomicInteger();
+	ProgressListener progress = new ProgressListener() {
+
+	    @Override
+	    public void nodesSolved(int solved, int total) {
+		reports.incrementAndGet();
+		reached.countDown();
+		try {
+		    cancelled.await();
+		} catch (InterruptedException e) {
+		    Thread.currentThread().interrupt();
+		}
+	    }
+	};
+
+	// the solving is cancelled after its first layer and stops at the next
+	ExecutorService executor = Executors.newSingleThreadExecutor();
+	try {
+	    CompletableFuture<Float> future = s.solveAsync(executor, progress);
+	    assertTrue(reached.await(1, TimeUnit.MINUTES));
+	    assertTrue(future.cancel(true));
+	    cancelled.countDown();
+	    assertThrows(CancellationException.class, () -> future.get());
+	} finally {
+	    executor.shutdown();
+	    assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+	}
+	assertEquals(1, reports.get());
+	assertFalse(s.solved());
+    }
+
 }
@@ -0,0 +1,142 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import solver.AlphaBetaSearch;
+import solver.Evaluation;
+import solver.MonteCarloSearch;
+import tictactoe.Mark;
+import ultimate.Move;
+import ultimate.UltimateBoard;
+import ultimate.UltimateRules;
+
+/**
+ * A collection of tests on Ultimate Noughts-and-Crosses Board
+ * 
+ * @author Tin Leelavimolsilp
+ */
+class UltimateBoardTest {
+
+    /**
+     * Make the given moves in turn, each as a board index followed by a cell
+     * index
+     */
+    private static UltimateBoard play(UltimateBoard board, int... moves) {
+	for (int i = 0; i < moves.length; i += 2)
+	    board.doAction(Move.valueOf(moves[i], moves[i + 1]));
+	return board;
+    }
+
+    @Test
+    void testSentToBoard() {
+	UltimateBoard board = new UltimateBoard(Mark.Cross);
+	assertEquals(81, board.getAction().length);
+	assertEquals(-1, board.getNextBoard());
+
+	play(board, 4, 2);
+	assertEquals(2, board.getNextBoard());
+	Move[] moves = board.getAction();
+	assertEquals(9, moves.length);
+	for (Move m : moves)
+	    assertEquals(2, m.board);
+	assertThrows(IllegalArgumentException.class, () -> board.doAction(Move.valueOf(3, 3)));
+
+	play(board, 2, 4);
+	assertEquals(8, board.getAction().length);
+	assertThrows(IllegalArgumentException.class, () -> board.doAction(Move.valueOf(4, 2)));
+    }
+
+    @Test
+    void testSmallBoardWin() {
+	// nought completes the middle row of the top-left board
+	UltimateBoard board = play(new UltimateBoard(Mark.Cross), 0, 0, 0, 4, 4, 0, 0, 8, 8, 0, 0, 3, 3, 0, 0, 5);
+	assertEquals(Mark.Nought, board.getBoardWinner(0));
+	assertEquals(Mark.Unmarked, board.getBoardWinner(4));
+	assertFalse(board.isTerminated());
+	assertEquals(5, board.getNextBoard());
+	assertTrue(new UltimateRules().evaluateState(board, Mark.Nought) > 0);
+
+	// being sent to a won board frees the opponent to move on any open board
+	play(board, 5, 0);
+	assertEquals(-1, board.getNextBoard());
+	Move[] moves = board.getAction();
+	assertEquals(8 * 9 - 4, moves.length);
+	for (Move m : moves)
+	    assertNotEquals(0, m.board);
+    }
+
+    @Test
+    void testRandomPlayAndUndo() {
+	Random random = new Random(42);
+	for (int game = 0; game < 200; game++) {
+	    UltimateBoard board = new UltimateBoard(game % 2 == 0 ? Mark.Cross : Mark.Nought);
+	    Deque<Move> moves = new ArrayDeque<Move>();
+	    Deque<UltimateBoard> before = new ArrayDeque<UltimateBoard>();
+	    while (!board.isTerminated()) {
+		Move[] actions = board.getAction();
+		assertTrue(actions.length > 0);
+		Move m = actions[random.nextInt(actions.length)];
+		before.push(new UltimateBoard(board));
+		board.doAction(m);
+		moves.push(m);
+	    }
+	    assertNull(board.getAction());
+
+	    Mark winner = board.getWinner();
+	    if (winner != null) {
+		boolean line = false;
+		for (int[] l : new int[][] { { 0, 1, 2 }, { 3, 4, 5 }, { 6, 7, 8 }, { 0, 3, 6 }, { 1, 4, 7 },
+			{ 2, 5, 8 }, { 0, 4, 8 }, { 2, 4, 6 } })
+		    line |= Arrays.stream(l).allMatch(b -> board.getBoardWinner(b) == winner);
+		assertTrue(line);
+	    }
+
+	    while (!moves.isEmpty()) {
+		board.undoAction(moves.pop());
+		UltimateBoard b = before.pop();
+		assertEquals(b, board);
+		assertEquals(b.getKey(), board.getKey());
+		assertEquals(0, b.compareTo(board));
+	    }
+	}
+    }
+
+    @Test
+    void testDepthLimitedSearch() {
+	UltimateBoard board = play(new UltimateBoard(Mark.Cross), 4, 4, 4, 0, 0, 4);
+	AlphaBetaSearch<Mark, Move, UltimateBoard> search = new AlphaBetaSearch<>(new UltimateRules(), 1, 4, 16);
+	Evaluation<Move> e = search.evaluate(board);
+	assertTrue(e.value > -1 && e.value < 1);
+	assertTrue(Arrays.asList(board.getAction()).containsAll(Arrays.asList(e.actions)));
+    }
+
+    @Test
+    void testMonteCarloSearch() {
+	MonteCarloSearch<Mark, Move, UltimateBoard> search = new MonteCarloSearch<Mark, Move, UltimateBoard>(
+		new UltimateRules(), Duration.ofMinutes(1), 200, new SplittableRandom(38));
+
+	// the search plays a whole game against itself with legal moves only
+	UltimateBoard board = new UltimateBoard(Mark.Cross);
+	int moves = 0;
+	while (!board.isTerminated()) {
+	    UltimateBoard before = new UltimateBoard(board);
+	    Evaluation<Move> e = search.evaluate(board);
+	    assertEquals(before, board);
+	    assertEquals(200, search.getPlayouts());
+	    assertTrue(e.value >= -1 && e.value <= 1);
+	    assertTrue(Arrays.asList(board.getAction()).contains(e.actions[0]));
+	    board.doAction(e.actions[0]);
+	    moves++;
+	}
+	assertTrue(moves >= 17 && moves <= 81);
+	assertNull(search.evaluate(board).actions);
+    }
+
+}
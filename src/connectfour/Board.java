@@ -0,0 +1,373 @@
+package connectfour;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import solver.State;
+
+/**
+ * Board of Connect-Four where discs drop to the lowest empty cell of a column
+ * and a player wins with four discs in a row, column or diagonal.
+ * <P>
+ * The discs of each player are held in a bitboard. Each column takes rows + 1
+ * bits, from the bottom cell upwards, and the extra bit is always clear so that
+ * lines never wrap from one column into the next. Four in a line is then found
+ * by shifting the bitboard along the line twice.
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class Board extends State<Disc, Column> {
+
+    /**
+     * Largest number of bits of a bitboard, including the extra bit of each column
+     */
+    static final int MAX_CELLS = 64;
+
+    /**
+     * Number of columns and rows
+     */
+    private final int columns, rows;
+
+    /**
+     * Bitboards of the red discs and the yellow discs
+     */
+    private long red = 0, yellow = 0;
+
+    /**
+     * Number of discs in each column
+     */
+    private final int[] heights;
+
+    /**
+     * Total number of discs
+     */
+    private int count = 0;
+
+    /**
+     * Status of this game state. Empty if it is non-terminal; null if it is a tie;
+     * otherwise disc of the winner
+     */
+    private Disc status = Disc.Empty;
+
+    /**
+     * Construct a new board of 7 columns and 6 rows
+     * 
+     * @param disc the disc of the player that will take turn
+     */
+    public Board(Disc disc) {
+	this(disc, 7, 6);
+    }
+
+    /**
+     * Construct a new board
+     * 
+     * @param disc    the disc of the player that will take turn
+     * @param columns the number of columns
+     * @param rows    the number of rows
+     */
+    public Board(Disc disc, int columns, int rows) {
+	super(disc);
+	if (disc == Disc.Empty)
+	    throw new IllegalArgumentException("the given disc must not be Empty.");
+	if (columns <= 0 || rows <= 0)
+	    throw new IllegalArgumentException("the given size is not positive.");
+	if (columns * (rows + 1) > MAX_CELLS)
+	    throw new IllegalArgumentException("the given board does not fit in " + MAX_CELLS + " bits.");
+
+	this.columns = columns;
+	this.rows = rows;
+	this.heights = new int[columns];
+    }
+
+    /**
+     * Construct a new board that is a copy of the given board
+     * 
+     * @param b an existing board
+     */
+    public Board(Board b) {
+	super(b);
+
+	this.columns = b.columns;
+	this.rows = b.rows;
+	this.red = b.red;
+	this.yellow = b.yellow;
+	this.heights = b.heights.clone();
+	this.count = b.count;
+	this.status = b.status;
+    }
+
+    /**
+     * Write this board to the specified output in a compact binary form, which
+     * read() reads back
+     */
+    public final void write(DataOutput out) throws IOException {
+	out.writeByte(columns);
+	out.writeByte(rows);
+	out.writeByte(player.ordinal());
+	out.writeLong(red);
+	out.writeLong(yellow);
+    }
+
+    /**
+     * Read a board written by write() from the specified input
+     */
+    public static Board read(DataInput in) throws IOException {
+	Disc[] discs = Disc.values();
+	int columns = in.readUnsignedByte(), rows = in.readUnsignedByte(), player = in.readUnsignedByte();
+	if (player >= discs.length || discs[player] == Disc.Empty)
+	    throw new IOException("The board read has no player to move.");
+	Board b = new Board(discs[player], columns, rows);
+	b.red = in.readLong();
+	b.yellow = in.readLong();
+
+	// the discs of each column must lie at its bottom
+	for (int c = 0; c < columns; c++) {
+	    long column = ((b.red | b.yellow) >>> (c * (rows + 1))) & ((1L << (rows + 1)) - 1);
+	    b.heights[c] = Long.bitCount(column);
+	    if (column != (1L << b.heights[c]) - 1 || b.heights[c] > rows)
+		throw new IOException("The board read has a disc above an empty cell.");
+	    b.count += b.heights[c];
+	}
+	if ((b.red & b.yellow) != 0 || b.count != Long.bitCount(b.red | b.yellow))
+	    throw new IOException("The board read has a disc outside the board.");
+
+	if (b.isLine(b.red))
+	    b.status = Disc.Red;
+	else if (b.isLine(b.yellow))
+	    b.status = Disc.Yellow;
+	else if (b.count == columns * rows)
+	    b.status = null;
+	return b;
+    }
+
+    /**
+     * Drop a disc of the current {@code player} into the specified column, and
+     * record the status of this game after that. The current {@code player} is
+     * then changed to the opponent.
+     */
+    @Override
+    public final void doAction(Column c) {
+	if (c == null)
+	    throw new NullPointerException("The specified column must not be null.");
+	if (status != Disc.Empty)
+	    throw new IllegalArgumentException("The board is in a terminal state.");
+	if (c.index >= columns || heights[c.index] == rows)
+	    throw new IllegalArgumentException("The specified column " + c + " is not an open column.");
+
+	long bit = 1L << (c.index * (rows + 1) + heights[c.index]++);
+	count++;
+	long discs;
+	if (player == Disc.Red)
+	    discs = red |= bit;
+	else
+	    discs = yellow |= bit;
+
+	if (isLine(discs))
+	    status = player;
+	else if (count == columns * rows)
+	    status = null;
+
+	player = getOpponent(player);
+    }
+
+    /**
+     * Take back the top disc of the specified column, dropped by the last call to
+     * {@code doAction()}. The current {@code player} is changed back.
+     */
+    @Override
+    public final void undoAction(Column c) {
+	if (c == null)
+	    throw new NullPointerException("The specified column must not be null.");
+	Disc last = getOpponent(player);
+	if (c.index >= columns || heights[c.index] == 0)
+	    throw new IllegalArgumentException("The specified column " + c + " has no disc.");
+
+	long bit = 1L << (c.index * (rows + 1) + heights[c.index] - 1);
+	if (((last == Disc.Red ? red : yellow) & bit) == 0)
+	    throw new IllegalArgumentException("The top disc of column " + c + " was not dropped by " + last + ".");
+
+	heights[c.index]--;
+	count--;
+	if (last == Disc.Red)
+	    red &= ~bit;
+	else
+	    yellow &= ~bit;
+
+	status = Disc.Empty;
+	player = last;
+    }
+
+    /**
+     * Return true if the specified bitboard has four discs in a column, a row or
+     * either diagonal
+     */
+    private boolean isLine(long b) {
+	return isLine(b, 1) || isLine(b, rows) || isLine(b, rows + 1) || isLine(b, rows + 2);
+    }
+
+    /**
+     * Return true if the specified bitboard has four discs in the line whose
+     * cells are the specified number of bits apart
+     */
+    private static boolean isLine(long b, int shift) {
+	long m = b & (b >>> shift);
+	return (m & (m >>> 2 * shift)) != 0;
+    }
+
+    /**
+     * Return the opponent of the specified disc
+     */
+    private static Disc getOpponent(Disc d) {
+	return d == Disc.Red ? Disc.Yellow : Disc.Red;
+    }
+
+    /**
+     * Return columns that are not full, or {@code null} if this is a terminal
+     * state
+     */
+    @Override
+    public final Column[] getAction() {
+	if (status != Disc.Empty)
+	    return null;
+
+	int n = 0;
+	for (int h : heights)
+	    if (h < rows)
+		n++;
+
+	Column[] open = new Column[n];
+	n = 0;
+	for (int i = 0; i < columns; i++)
+	    if (heights[i] < rows)
+		open[n++] = Column.valueOf(i);
+	return open;
+    }
+
+    @Override
+    public final boolean isTerminated() {
+	return status != Disc.Empty;
+    }
+
+    /**
+     * Return Empty if the state is non-terminal; null if it is a tie; otherwise
+     * disc of the winner is returned
+     */
+    @Override
+    public final Disc getWinner() {
+	return status;
+    }
+
+    /**
+     * Return the disc at the specified column and row, counted from the bottom
+     */
+    public final Disc getDisc(int column, int row) {
+	if (column < 0 || column >= columns || row < 0 || row >= rows)
+	    throw new IllegalArgumentException("the given cell is outside the board.");
+
+	long bit = 1L << (column * (rows + 1) + row);
+	if ((red & bit) != 0)
+	    return Disc.Red;
+	if ((yellow & bit) != 0)
+	    return Disc.Yellow;
+	return Disc.Empty;
+    }
+
+    /**
+     * Return total number of columns
+     */
+    public final int getColumns() {
+	return columns;
+    }
+
+    /**
+     * Return total number of rows
+     */
+    public final int getRows() {
+	return rows;
+    }
+
+    /**
+     * Return total number of discs on the board
+     */
+    public final int countDiscs() {
+	return count;
+    }
+
+    /**
+     * Return a 64-bit key mixed from both bitboards, the size of the board and
+     * the player to move
+     */
+    @Override
+    public final long getKey() {
+	long shape = (long) columns << 8 | rows;
+	long z = red * 0x9E3779B97F4A7C15L + yellow * 0xC2B2AE3D27D4EB4FL + (shape << 1)
+		+ (player == Disc.Yellow ? 1 : 0);
+	z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+	z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+	return z ^ (z >>> 31);
+    }
+
+    @Override
+    public final int hashCode() {
+	final int prime = 31;
+	int result = super.hashCode();
+	result = prime * result + columns;
+	result = prime * result + rows;
+	result = prime * result + Long.hashCode(red);
+	result = prime * result + Long.hashCode(yellow);
+	return result;
+    }
+
+    @Override
+    public final boolean equals(Object obj) {
+	if (this == obj)
+	    return true;
+	if (!super.equals(obj))
+	    return false;
+
+	if (!(obj instanceof Board))
+	    return false;
+	Board other = (Board) obj;
+
+	return columns == other.columns && rows == other.rows && red == other.red && yellow == other.yellow;
+    }
+
+    @Override
+    public final int compareTo(State<Disc, Column> s) {
+	if (this == s)
+	    return 0;
+	if (s == null)
+	    throw new NullPointerException("the given state s must not be null.");
+
+	if (!(s instanceof Board))
+	    throw new IllegalArgumentException("the given argument is not an instace of Board.");
+	Board b = (Board) s;
+
+	int c;
+	if ((c = Integer.compare(this.columns, b.columns)) != 0)
+	    return c;
+	if ((c = Integer.compare(this.rows, b.rows)) != 0)
+	    return c;
+	if ((c = Integer.compare(this.count, b.count)) != 0)
+	    return c;
+	if ((c = this.player.compareTo(b.player)) != 0)
+	    return c;
+	if ((c = Long.compare(this.red, b.red)) != 0)
+	    return c;
+	return Long.compare(this.yellow, b.yellow);
+    }
+
+    @Override
+    public final String toString() {
+	StringBuilder s = new StringBuilder();
+	for (int row = rows - 1; row >= 0; row--) {
+	    for (int column = 0; column < columns; column++)
+		s.append(getDisc(column, row).toString());
+	    s.append(System.lineSeparator());
+	}
+
+	return s.toString();
+    }
+
+}
@@ -0,0 +1,65 @@
+package connectfour;
+
+/**
+ * Index of the column a disc is dropped into
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public final class Column implements Comparable<Column> {
+
+    /**
+     * Shared instances of every column a board may have
+     */
+    private static final Column[] COLUMNS = new Column[Board.MAX_CELLS];
+
+    static {
+	for (int i = 0; i < COLUMNS.length; i++)
+	    COLUMNS[i] = new Column(i);
+    }
+
+    /**
+     * Column index
+     */
+    public final int index;
+
+    public Column(int index) {
+	if (index < 0)
+	    throw new IllegalArgumentException("the given column index is negative");
+
+	this.index = index;
+    }
+
+    /**
+     * Return the shared instance of the specified column index
+     */
+    public static Column valueOf(int index) {
+	if (index >= 0 && index < COLUMNS.length)
+	    return COLUMNS[index];
+	return new Column(index);
+    }
+
+    @Override
+    public int compareTo(Column c) {
+	return Integer.compare(this.index, c.index);
+    }
+
+    @Override
+    public int hashCode() {
+	return index;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+	if (this == obj)
+	    return true;
+	if (!(obj instanceof Column))
+	    return false;
+
+	return index == ((Column) obj).index;
+    }
+
+    @Override
+    public String toString() {
+	return "(" + index + ")";
+    }
+}
@@ -0,0 +1,97 @@
+package connectfour;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+
+import solver.Checkpoint;
+import solver.GameTree;
+import solver.MemoryBudget;
+import solver.ProgressListener;
+
+/**
+ * A game tree for Connect-Four. Only small boards can be built in full; larger
+ * ones are meant for the searches over states.
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class ConnectFourGameTree extends GameTree<Disc, Column, Board> {
+
+    public ConnectFourGameTree(Board root) {
+	super(root);
+    }
+
+    /**
+     * Construct a single game tree shared by all the specified boards, of which
+     * the first is the root
+     */
+    public ConnectFourGameTree(Collection<? extends Board> roots) {
+	super(roots);
+    }
+
+    /**
+     * Construct a game tree from the specified root, saving its progress to the
+     * specified checkpoint and resuming from it
+     */
+    public ConnectFourGameTree(Board root, ProgressListener progress, Checkpoint checkpoint) {
+	super(Collections.singletonList(root), progress, MemoryBudget.UNLIMITED, checkpoint);
+    }
+
+    private ConnectFourGameTree(ConnectFourGameTree tree, Board root) {
+	super(tree, root);
+    }
+
+    @Override
+    public final ConnectFourGameTree reroot(Board s) {
+	return new ConnectFourGameTree(this, s);
+    }
+
+    @Override
+    protected final Board constructNewState(Board s) {
+	return new Board(s);
+    }
+
+    @Override
+    protected final Board[] getNewStateArray(int length) {
+	return new Board[length];
+    }
+
+    @Override
+    protected final Column[][] getNewActionArray(int length) {
+	return new Column[length][];
+    }
+
+    @Override
+    protected final void writeState(Board s, DataOutput out) throws IOException {
+	s.write(out);
+    }
+
+    @Override
+    protected final Board readState(DataInput in) throws IOException {
+	return Board.read(in);
+    }
+
+    @Override
+    protected final int getBoardSize(Board s) {
+	return s.getColumns() * s.getRows();
+    }
+
+    /**
+     * A board holds two bitboards, its counters and an array of column heights
+     */
+    @Override
+    protected final long estimateStateBytes(Board s) {
+	return 48 + ((16 + 4L * s.getColumns() + 7) & ~7L);
+    }
+
+    /**
+     * Columns are shared instances
+     */
+    @Override
+    protected final long estimateActionBytes(Column a) {
+	return 0;
+    }
+
+}
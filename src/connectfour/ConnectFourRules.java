@@ -0,0 +1,40 @@
+package connectfour;
+
+import solver.Rules;
+
+/**
+ * Rules of Connect-Four for searches over boards
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class ConnectFourRules extends Rules<Disc, Column, Board> {
+
+    @Override
+    public final Board constructNewState(Board s) {
+	return new Board(s);
+    }
+
+    /**
+     * A board is associated with 1 (or -1) if it's a win (or a loss,
+     * respectively) for the specified player; otherwise a zero for a tie
+     */
+    @Override
+    public final float evaluateTerminalState(Board s, Disc p) {
+	assert s.isTerminated();
+
+	Disc w = s.getWinner();
+	if (w == null)
+	    return 0;
+	else
+	    return w.equals(p) ? 1 : -1;
+    }
+
+    /**
+     * Return the number of empty cells
+     */
+    @Override
+    public final int estimateRemainingActions(Board s) {
+	return s.getRows() * s.getColumns() - s.countDiscs();
+    }
+
+}
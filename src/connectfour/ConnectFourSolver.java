@@ -0,0 +1,56 @@
+package connectfour;
+
+/**
+ * An implementation of game-solving algorithm to solve Connect-Four
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class ConnectFourSolver extends solver.Solver<Disc, Column, Board, ConnectFourGameTree> {
+
+    public ConnectFourSolver(ConnectFourGameTree t) {
+	super(t);
+    }
+
+    private ConnectFourSolver(ConnectFourSolver s, ConnectFourGameTree t) {
+	super(s, t);
+    }
+
+    @Override
+    public final ConnectFourSolver reroot(Board b) {
+	return new ConnectFourSolver(this, tree.reroot(b));
+    }
+
+    @Override
+    protected final Disc getOpponent(Disc p) {
+	switch (p) {
+	case Red:
+	    return Disc.Yellow;
+	case Yellow:
+	    return Disc.Red;
+	default:
+	    throw new AssertionError("The specified player p" + p.toString() + " is invalid.");
+	}
+    }
+
+    /**
+     * A board is associated with a positive value (or a negative value) if it's a
+     * win (or a loss, respectively) for the player of the root state; otherwise a
+     * zero for a tie
+     */
+    @Override
+    protected final float evaluateTerminalState(Board s, Disc p) {
+	assert s.isTerminated();
+
+	Disc w = s.getWinner();
+	if (w == null)
+	    return 0;
+	else
+	    return w.equals(maxPlayer) ? 1 : -1;
+    }
+
+    @Override
+    protected final Column[] getNewActionArray(int length) {
+	return new Column[length];
+    }
+
+}
@@ -0,0 +1,28 @@
+package connectfour;
+
+/**
+ * State of a board cell. It is also used to represent the outcome of game; i.e.
+ * a non-terminal state should be associated with empty, a terminal state with a
+ * winner should be associated with the disc of the winner, and a terminal state
+ * with a tie should not be associated with any element and hence null.
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public enum Disc {
+
+    Red("R"), Yellow("Y"), Empty("-");
+
+    /**
+     * the disc letter
+     */
+    final String c;
+
+    Disc(String c) {
+	this.c = c;
+    }
+
+    @Override
+    public final String toString() {
+	return c;
+    }
+}
@@ -0,0 +1,362 @@
+package solver;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A negamax search with alpha-beta pruning over states rather than over a built
+ * game tree. Results are cached in a transposition table.
+ * <P>
+ * With more than one thread, the search runs in the Lazy SMP style: every
+ * thread searches the same root, each in a different order of actions, and all
+ * of them share the transposition table without locking. A thread benefits from
+ * the entries stored by the others and the search completes as soon as any of
+ * them completes.
+ * 
+ * @author Tin Leelavimolsilp
+ *
+ * @param <P> Type of player
+ * @param <A> Type of action
+ * @param <S> Type of state
+ */
+public class AlphaBetaSearch<P extends Comparable<P>, A extends Comparable<A>, S extends State<P, A>> {
+
+    /**
+     * Depth of a search that goes on until terminal states
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /**
+     * Rules of the game
+     */
+    private final Rules<P, A, S> rules;
+
+    /**
+     * Number of threads searching the root
+     */
+    private final int threads;
+
+    /**
+     * Maximum number of actions searched from the root, or UNLIMITED
+     */
+    private final int maxDepth;
+
+    /**
+     * Transposition table shared by all threads and all searches
+     */
+    private final TranspositionTable table;
+
+    /**
+     * Set once any thread has completed the current search
+     */
+    private volatile boolean stop;
+
+    /**
+     * Number of states visited by the last search
+     */
+    private volatile long nodes;
+
+    /**
+     * Buffers of the actions of each thread at each number of actions from the
+     * root, kept across searches so that a search allocates nothing per state
+     */
+    private A[][][] buffers;
+
+    /**
+     * Construct a search until terminal states
+     * 
+     * @param rules     rules of the game
+     * @param threads   number of threads searching in parallel
+     * @param tableBits base 2 logarithm of the number of transposition table
+     *                  entries
+     */
+    public AlphaBetaSearch(Rules<P, A, S> rules, int threads, int tableBits) {
+	this(rules, threads, UNLIMITED, tableBits);
+    }
+
+    /**
+     * Construct a search that stops at the specified number of actions from the
+     * root, where states are valued by Rules.evaluateState()
+     * 
+     * @param rules     rules of the game
+     * @param threads   number of threads searching in parallel
+     * @param maxDepth  maximum number of actions from the root, less than
+     *                  TranspositionTable.MAX_DEPTH, or UNLIMITED
+     * @param tableBits base 2 logarithm of the number of transposition table
+     *                  entries
+     */
+    public AlphaBetaSearch(Rules<P, A, S> rules, int threads, int maxDepth, int tableBits) {
+	if (rules == null)
+	    throw new NullPointerException("The specified rules must not be null.");
+	if (threads <= 0)
+	    throw new IllegalArgumentException("The specified number of threads is not positive.");
+	if (maxDepth <= 0 || (maxDepth >= TranspositionTable.MAX_DEPTH && maxDepth != UNLIMITED))
+	    throw new IllegalArgumentException("The specified maximum depth is out of range.");
+
+	this.rules = rules;
+	this.threads = threads;
+	this.maxDepth = maxDepth;
+	this.table = new TranspositionTable(tableBits);
+    }
+
+    /**
+     * Search the specified state and return its value with respect to its player
+     * along with the best action found. The state itself is left unchanged.
+     */
+    public synchronized Evaluation<A> evaluate(S root) {
+	if (root == null)
+	    throw new NullPointerException("The specified state must not be null.");
+	if (root.isTerminated())
+	    return new Evaluation<A>(rules.evaluateTerminalState(root, root.getPlayer()), null);
+
+	if (buffers == null) {
+	    @SuppressWarnings("unchecked")
+	    A[][][] b = (A[][][]) Array.newInstance(root.getAction().getClass(), threads, 16);
+	    buffers = b;
+	}
+
+	stop = false;
+	AtomicReference<Evaluation<A>> result = new AtomicReference<Evaluation<A>>();
+	AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+	// every thread works on its own copy of the root
+	List<Worker> workers = new ArrayList<Worker>(threads);
+	Thread[] helpers = new Thread[threads - 1];
+	for (int w = 0; w < threads; w++)
+	    workers.add(new Worker(w, rules.constructNewState(root), result, failure));
+	for (int h = 0; h < helpers.length; h++) {
+	    helpers[h] = new Thread(workers.get(h + 1), "alpha-beta-" + (h + 1));
+	    helpers[h].setDaemon(true);
+	    helpers[h].start();
+	}
+
+	workers.get(0).run();
+	boolean interrupted = false;
+	for (Thread h : helpers)
+	    while (true)
+		try {
+		    h.join();
+		    break;
+		} catch (InterruptedException e) {
+		    interrupted = true;
+		}
+	if (interrupted)
+	    Thread.currentThread().interrupt();
+
+	long n = 0;
+	for (Worker w : workers)
+	    n += w.nodes;
+	nodes = n;
+
+	if (result.get() == null)
+	    throw new IllegalStateException("The search failed.", failure.get());
+	return result.get();
+    }
+
+    /**
+     * Return the number of states visited by the last search over all threads
+     */
+    public long getNodes() {
+	return nodes;
+    }
+
+    /**
+     * Remove every result cached by previous searches
+     */
+    public synchronized void clear() {
+	table.clear();
+    }
+
+    /**
+     * A thread of the search
+     */
+    private final class Worker implements Runnable {
+
+	/**
+	 * Index of the thread; it decides the order of actions
+	 */
+	private final int id;
+
+	/**
+	 * Copy of the root state, modified and restored by the search
+	 */
+	private final S state;
+
+	/**
+	 * Result of the first thread to complete the search
+	 */
+	private final AtomicReference<Evaluation<A>> result;
+
+	/**
+	 * The first unexpected exception thrown by a thread
+	 */
+	private final AtomicReference<Throwable> failure;
+
+	/**
+	 * Number of states visited by this thread
+	 */
+	private long nodes = 0;
+
+	Worker(int id, S state, AtomicReference<Evaluation<A>> result, AtomicReference<Throwable> failure) {
+	    this.id = id;
+	    this.state = state;
+	    this.result = result;
+	    this.failure = failure;
+	}
+
+	@Override
+	public void run() {
+	    try {
+		Evaluation<A> e = searchRoot();
+		if (result.compareAndSet(null, e))
+		    stop = true;
+	    } catch (Abort e) {
+		// another thread has completed the search
+	    } catch (Throwable t) {
+		failure.compareAndSet(null, t);
+		stop = true;
+	    }
+	}
+
+	/**
+	 * Search every action of the root and return the best one
+	 */
+	private Evaluation<A> searchRoot() {
+	    A[] actions = getBuffer(0, 0);
+	    int n = state.getAction(actions);
+	    if (n > actions.length)
+		state.getAction(actions = getBuffer(0, n));
+	    float alpha = Float.NEGATIVE_INFINITY;
+	    int best = -1;
+	    for (int k = 0; k < n; k++) {
+		int i = (k + id) % n;
+		state.doAction(actions[i]);
+		float v = -negamax(1, childDepth(maxDepth), Float.NEGATIVE_INFINITY, -alpha);
+		state.undoAction(actions[i]);
+		if (best < 0 || v > alpha) {
+		    alpha = v;
+		    best = i;
+		}
+	    }
+
+	    A[] bestActions = Arrays.copyOf(actions, 1);
+	    bestActions[0] = actions[best];
+	    return new Evaluation<A>(alpha == 0 ? 0 : alpha, bestActions);
+	}
+
+	/**
+	 * Return value of the state the specified number of actions from the root
+	 * with respect to its player, searching at most the specified depth of
+	 * actions ahead; the value is exact only if it lies strictly between alpha
+	 * and beta
+	 */
+	private float negamax(int ply, int depth, float alpha, float beta) {
+	    if (stop)
+		throw Abort.INSTANCE;
+	    nodes++;
+
+	    P player = state.getPlayer();
+	    if (state.isTerminated())
+		return rules.evaluateTerminalState(state, player);
+	    if (depth == 0)
+		return rules.evaluateState(state, player);
+
+	    // narrow the window by the cached result, if any
+	    long key = state.getKey();
+	    long data = table.probe(key);
+	    int first = -1;
+	    if (TranspositionTable.bound(data) != 0) {
+		first = TranspositionTable.action(data);
+		if (TranspositionTable.depth(data) >= Math.min(depth, TranspositionTable.MAX_DEPTH)) {
+		    float v = TranspositionTable.value(data);
+		    switch (TranspositionTable.bound(data)) {
+		    case TranspositionTable.EXACT:
+			return v;
+		    case TranspositionTable.LOWER:
+			alpha = Math.max(alpha, v);
+			break;
+		    case TranspositionTable.UPPER:
+			beta = Math.min(beta, v);
+			break;
+		    }
+		    if (alpha >= beta)
+			return v;
+		}
+	    }
+
+	    // the cached best action first, then the others rotated by the thread index
+	    A[] actions = getBuffer(ply, 0);
+	    int n = state.getAction(actions);
+	    if (n > actions.length)
+		state.getAction(actions = getBuffer(ply, n));
+	    if (first >= n)
+		first = -1;
+	    float alpha0 = alpha, best = Float.NEGATIVE_INFINITY;
+	    int bestIndex = 0;
+	    for (int k = first < 0 ? 0 : -1; k < n; k++) {
+		int i = k < 0 ? first : (k + id) % n;
+		if (k >= 0 && i == first)
+		    continue;
+
+		state.doAction(actions[i]);
+		float v = -negamax(ply + 1, childDepth(depth), -beta, -alpha);
+		state.undoAction(actions[i]);
+		if (v > best) {
+		    best = v;
+		    bestIndex = i;
+		}
+		if (v > alpha)
+		    alpha = v;
+		if (alpha >= beta)
+		    break;
+	    }
+
+	    int bound = best <= alpha0 ? TranspositionTable.UPPER
+		    : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+	    table.store(key, best, depth, bound, bestIndex);
+	    return best;
+	}
+
+	/**
+	 * Return the buffer of actions of this thread at the specified number of
+	 * actions from the root, long enough for the specified number of actions
+	 */
+	private A[] getBuffer(int ply, int length) {
+	    A[][] b = buffers[id];
+	    if (ply >= b.length)
+		b = buffers[id] = Arrays.copyOf(b, Math.max(ply + 1, b.length * 2));
+	    if (b[ply] == null || b[ply].length < length) {
+		@SuppressWarnings("unchecked")
+		A[] a = (A[]) Array.newInstance(b.getClass().getComponentType().getComponentType(),
+			Math.max(length, 16));
+		b[ply] = a;
+	    }
+	    return b[ply];
+	}
+    }
+
+    /**
+     * Return the depth left after one more action
+     */
+    private static int childDepth(int depth) {
+	return depth == UNLIMITED ? UNLIMITED : depth - 1;
+    }
+
+    /**
+     * Thrown to unwind a thread once another thread has completed the search
+     */
+    private static final class Abort extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	static final Abort INSTANCE = new Abort();
+
+	private Abort() {
+	    super(null, null, false, false);
+	}
+    }
+
+}
@@ -0,0 +1,135 @@
+package solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * A folder where building a game tree and solving it save their progress from
+ * time to time, so that a run stopped half way can resume from where it was
+ * saved. Each file is written in full to a temporary file, forced to disk and
+ * then moved over the previous one, so a crash while saving leaves the previous
+ * file intact.
+ * <P>
+ * The files are kept after the work completes, so running it again loads the
+ * result rather than repeating it. Delete them to start over.
+ *
+ * @author Tin Leelavimolsilp
+ */
+public final class Checkpoint {
+
+    /**
+     * No checkpoint at all
+     */
+    public static final Checkpoint NONE = new Checkpoint();
+
+    /**
+     * Folder of the files, or null if none
+     */
+    private final Path directory;
+
+    /**
+     * Least time between two saves in nanoseconds
+     */
+    private final long intervalNanos;
+
+    private Checkpoint() {
+	this.directory = null;
+	this.intervalNanos = Long.MAX_VALUE;
+    }
+
+    /**
+     * Construct a checkpoint in the specified folder, saved at most once in the
+     * specified interval
+     */
+    public Checkpoint(Path directory, Duration interval) {
+	if (directory == null)
+	    throw new NullPointerException("The specified directory must not be null.");
+	if (interval == null)
+	    throw new NullPointerException("The specified interval must not be null.");
+	if (interval.isNegative())
+	    throw new IllegalArgumentException("The specified interval must not be negative.");
+
+	this.directory = directory;
+	this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Return the folder of the files, or null for NONE
+     */
+    public Path getDirectory() {
+	return directory;
+    }
+
+    /**
+     * Return the least time between two saves
+     */
+    public Duration getInterval() {
+	return Duration.ofNanos(intervalNanos);
+    }
+
+    /**
+     * Return true if it is time to save again, given when it was last saved
+     */
+    boolean isDue(long lastNanos) {
+	return directory != null && System.nanoTime() - lastNanos >= intervalNanos;
+    }
+
+    /**
+     * Something written to a checkpoint file
+     */
+    interface Writer {
+	void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Replace the file of the specified name with what the specified writer writes
+     */
+    void write(String name, Writer writer) throws IOException {
+	Files.createDirectories(directory);
+	Path file = directory.resolve(name);
+	Path temp = directory.resolve(name + ".tmp");
+
+	try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+		StandardOpenOption.TRUNCATE_EXISTING)) {
+	    DataOutputStream out = new DataOutputStream(
+		    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+	    writer.write(out);
+	    out.flush();
+	    channel.force(true);
+	}
+	Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Return a stream over the file of the specified name, or null if there is no
+     * such file
+     */
+    DataInputStream read(String name) throws IOException {
+	if (directory == null)
+	    return null;
+
+	try {
+	    return new DataInputStream(
+		    new BufferedInputStream(Channels.newInputStream(FileChannel.open(directory.resolve(name))), 1 << 16));
+	} catch (NoSuchFileException e) {
+	    return null;
+	}
+    }
+
+    @Override
+    public String toString() {
+	return directory == null ? "none" : directory + " every " + getInterval();
+    }
+
+}
@@ -0,0 +1,35 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Value and best actions of a solved state
+ * 
+ * @author Tin Leelavimolsilp
+ *
+ * @param <A> Type of action
+ */
+public final class Evaluation<A> {
+
+    /**
+     * Value of the state with respect to its player; i.e. a positive value if
+     * it's a win for the player, a negative value if it's a loss; zero if it's a
+     * tie
+     */
+    public final float value;
+
+    /**
+     * Best actions to take on the state. Null if it is a terminal state.
+     */
+    public final A[] actions;
+
+    Evaluation(float value, A[] actions) {
+	this.value = value;
+	this.actions = actions;
+    }
+
+    @Override
+    public String toString() {
+	return value + " " + Arrays.toString(actions);
+    }
+}
@@ -1,7 +1,13 @@
 package solver;
 
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -9,13 +15,23 @@ import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeSet;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * A tree of game's states and their transitions
@@ -33,57 +49,330 @@ public abstract class GameTree<P extends Comparable<P>, A extends Comparable<A>,
      * Construct a game tree and populate the tree with the specified state as the
      * root (or the initial state)
      */
-    protected GameTree(S root) 
-    {
-    	ArrayList<S> initStateList = new ArrayList<>();
-    	ArrayList<S> stateList = generateStateList(initStateList, root);
-    	
-    	states = getNewStateArray(stateList.size());
-    	actions = getNewActionArray(stateList.size());
-    	
-    	for(int i = 0; i < stateList.size(); i ++)
-    	{
-    		S state = stateList.get(i);
-    		
-    		A[] permissable = getActions(state);    		
-    		states[i] = state;
-    		
-    		for(int j = 0; j < permissable.length; j ++)
-    		{
-    			actions[i][j] = permissable[j];
-    		}
-    	}
-    	this.destinations = null;
-		this.root = 0;
-
-    }
-
-    public ArrayList<S> generateStateList(ArrayList<S> stateList, S state)
-    {
-    	stateList.add(state);
-    	states = getNewStateArray(stateList.size());
-    	for(int i = 0; i < stateList.size(); i ++)
-    	{
-    		states[i] = stateList.get(i);
-    	}
-    	
-    	A[] permissable = getActions(state);
-    	if(permissable == null)
-    	{
-    		return stateList;
-    	}
-    	else 
-    	{
-    		for(int i = 0; i < permissable.length; i++)
-	    	{
-	    		S nextState = getDestinationState(state, permissable[i]);
-	    		stateList = generateStateList(stateList, nextState);
-	    	}
-    		return stateList;
-    	}
-    }
-    
-    
+    protected GameTree(S root) {
+	this(Collections.singletonList(root), ProgressListener.NONE);
+    }
+
+    /**
+     * Construct a game tree populated from the specified root while reporting the
+     * progress to the specified listener
+     */
+    protected GameTree(S root, ProgressListener progress) {
+	this(Collections.singletonList(root), progress);
+    }
+
+    /**
+     * Construct a single game tree populated with every state reachable from any
+     * of the specified states. A state reachable from several of them is stored
+     * once. The first specified state becomes the root.
+     */
+    protected GameTree(Collection<? extends S> roots) {
+	this(roots, ProgressListener.NONE);
+    }
+
+    /**
+     * Construct a single game tree populated from the specified states while
+     * reporting the progress to the specified listener
+     */
+    protected GameTree(Collection<? extends S> roots, ProgressListener progress) {
+	this(roots, progress, MemoryBudget.UNLIMITED);
+    }
+
+    /**
+     * Construct a single game tree populated from the specified states within the
+     * specified memory budget. Depending on the policy of the budget, running
+     * over it either throws IllegalStateException or leaves the states not yet
+     * expanded as the frontier of the tree; i.e. non-terminal states without any
+     * action.
+     */
+    protected GameTree(Collection<? extends S> roots, ProgressListener progress, MemoryBudget budget) {
+	this(roots, progress, budget, Checkpoint.NONE);
+    }
+
+    /**
+     * Construct a single game tree populated from the specified states within the
+     * specified memory budget, saving the states found so far to the specified
+     * checkpoint from time to time. If the checkpoint holds states saved for the
+     * same root states, construction resumes from them.
+     */
+    protected GameTree(Collection<? extends S> roots, ProgressListener progress, MemoryBudget budget,
+	    Checkpoint checkpoint) {
+	this(roots, progress, budget, checkpoint, UNLIMITED);
+    }
+
+    /**
+     * Construct a single game tree populated with the states within the specified
+     * number of actions from any of the specified states. Non-terminal states at
+     * that depth are left as the frontier of the tree, as are those left by
+     * running over the memory budget; see getFrontier().
+     */
+    protected GameTree(Collection<? extends S> roots, ProgressListener progress, MemoryBudget budget,
+	    Checkpoint checkpoint, int maxDepth) {
+	if (roots == null)
+	    throw new NullPointerException("The specified root states must not be null.");
+	if (progress == null)
+	    throw new NullPointerException("The specified progress listener must not be null.");
+	if (budget == null)
+	    throw new NullPointerException("The specified memory budget must not be null.");
+	if (checkpoint == null)
+	    throw new NullPointerException("The specified checkpoint must not be null.");
+	if (roots.isEmpty())
+	    throw new IllegalArgumentException("The specified root states must not be empty.");
+	if (maxDepth < 0)
+	    throw new IllegalArgumentException("The specified maximum depth must not be negative.");
+	for (S r : roots)
+	    if (r == null)
+		throw new NullPointerException("The specified root state must not be null.");
+	long start = System.nanoTime();
+	SolverEvents.TreeBuild event = new SolverEvents.TreeBuild();
+	event.begin();
+
+	// refuse a tree that cannot fit before building any of it
+	S root = roots.iterator().next();
+	long estimate = 0;
+	for (S r : roots) {
+	    long n = estimateNodeCount(r);
+	    estimate = estimate < 0 || n < 0 ? -1 : n > Long.MAX_VALUE - estimate ? Long.MAX_VALUE : estimate + n;
+	}
+	if (budget.isLimited() && budget.getPolicy() == MemoryBudget.Policy.ABORT && estimate >= 0
+		&& estimate > budget.getBytes() / (estimateStateBytes(root) + NODE_BYTES))
+	    throw new IllegalStateException("The game tree of up to " + estimate
+		    + " states is estimated to run over the memory budget of " + budget.getBytes() + " bytes.");
+
+	// collect every reachable state once, naturally sorted, one layer of depth
+	// at a time; a checkpoint may hold part of the next layer as well
+	Set<S> stateSet = new TreeSet<S>();
+	List<S> layer = new ArrayList<S>(), nextLayer = new ArrayList<S>();
+	int depth = loadStates(checkpoint, roots, stateSet, layer, nextLayer);
+	boolean resumed = depth >= 0;
+	int resumedSize = stateSet.size();
+	if (!resumed)
+	    for (S r : roots) {
+		S s = constructNewState(r);
+		if (stateSet.add(s))
+		    layer.add(s);
+	    }
+	depth = Math.max(depth, 0);
+	long bytes = 0;
+	for (S s : stateSet)
+	    bytes += estimateStateBytes(s) + NODE_BYTES;
+
+	Set<S> frontier = Collections.emptySet();
+	List<S> pending = Collections.emptyList(), pendingNext = Collections.emptyList();
+	boolean heapFull = false;
+	long saved = System.nanoTime();
+	expansion: while (!layer.isEmpty() || !nextLayer.isEmpty()) {
+	    if (depth >= maxDepth) {
+		pending = layer;
+		pendingNext = nextLayer;
+		break;
+	    }
+	    if (checkpoint.isDue(saved)) {
+		saveStates(checkpoint, roots, stateSet, layer, nextLayer, depth);
+		saved = System.nanoTime();
+	    }
+
+	    for (int i = 0; i < layer.size(); i++) {
+		if (budget.isLimited() && (heapFull || bytes > budget.getBytes())) {
+		    if (budget.getPolicy() == MemoryBudget.Policy.ABORT)
+			throw new IllegalStateException("The game tree ran over the memory budget of "
+				+ budget.getBytes() + " bytes after " + stateSet.size() + " states.");
+		    pending = layer.subList(i, layer.size());
+		    pendingNext = nextLayer;
+		    break expansion;
+		}
+
+		S state = layer.get(i);
+		A[] permissible = state.getAction();
+		if (permissible == null)
+		    continue;
+
+		bytes += 2 * (16 + 4L * permissible.length);
+		for (A a : permissible) {
+		    S next = constructNewState(state);
+		    next.doAction(a);
+		    if (!stateSet.add(next))
+			continue;
+
+		    nextLayer.add(next);
+		    bytes += estimateStateBytes(next) + NODE_BYTES;
+		    if (stateSet.size() % PROGRESS_INTERVAL == 0) {
+			progress.nodesBuilt(stateSet.size());
+			heapFull = budget.isLimited() && isHeapFull();
+		    }
+		}
+	    }
+	    layer = nextLayer;
+	    nextLayer = new ArrayList<S>();
+	    depth++;
+	}
+	if (!pending.isEmpty() || !pendingNext.isEmpty()) {
+	    frontier = new TreeSet<S>(pending);
+	    frontier.addAll(pendingNext);
+	}
+	if (checkpoint.getDirectory() != null && (!resumed || stateSet.size() != resumedSize))
+	    saveStates(checkpoint, roots, stateSet, pending, pendingNext, depth);
+	states = stateSet.toArray(getNewStateArray(stateSet.size()));
+
+	// record permissible actions and the index of their destinations
+	actions = getNewActionArray(states.length);
+	destinations = new int[states.length][];
+	for (int i = 0; i < states.length; i++) {
+	    actions[i] = frontier.contains(states[i]) ? null : states[i].getAction();
+	    if (actions[i] == null)
+		continue;
+
+	    destinations[i] = new int[actions[i].length];
+	    for (int j = 0; j < actions[i].length; j++) {
+		S next = constructNewState(states[i]);
+		next.doAction(actions[i][j]);
+		destinations[i][j] = Arrays.binarySearch(states, next);
+	    }
+	}
+	progress.nodesBuilt(states.length);
+
+	int n = 0;
+	int[] leaves = new int[states.length];
+	for (int i = 0; i < states.length; i++)
+	    if (actions[i] == null && !states[i].isTerminated())
+		leaves[n++] = i;
+	this.frontier = Arrays.copyOf(leaves, n);
+	this.root = Arrays.binarySearch(states, root);
+	this.truncated = n > 0;
+	this.constructionNanos = System.nanoTime() - start;
+
+	event.end();
+	if (event.shouldCommit()) {
+	    event.boardSize = getBoardSize(root);
+	    event.nodes = states.length;
+	    for (A[] a : actions)
+		event.edges += a == null ? 0 : a.length;
+	    event.truncated = truncated;
+	    event.commit();
+	}
+    }
+
+    /**
+     * Name of the checkpoint file of the states found so far
+     */
+    private static final String STATES_FILE = "states.ckpt";
+
+    /**
+     * First bytes of the checkpoint file of the states
+     */
+    private static final int STATES_MAGIC = 0x54524547;
+
+    /**
+     * Save the specified root states, the states found so far, those still to be
+     * expanded at the specified depth and those found one action deeper to the
+     * specified checkpoint
+     */
+    private void saveStates(Checkpoint checkpoint, Collection<? extends S> roots, Set<S> stateSet,
+	    Collection<S> pending, Collection<S> pendingNext, int depth) {
+	try {
+	    checkpoint.write(STATES_FILE, out -> {
+		out.writeInt(STATES_MAGIC);
+		for (Collection<? extends S> c : Arrays.asList(roots, stateSet, pending, pendingNext)) {
+		    out.writeInt(c.size());
+		    for (S s : c)
+			writeState(s, out);
+		}
+		out.writeInt(depth);
+	    });
+	} catch (IOException e) {
+	    throw new UncheckedIOException(e);
+	}
+    }
+
+    /**
+     * Load the states found so far, those still to be expanded and those found one
+     * action deeper from the specified checkpoint into the given collections, and
+     * return the depth of the states still to be expanded. A negative number is
+     * returned if the checkpoint holds no states.
+     */
+    private int loadStates(Checkpoint checkpoint, Collection<? extends S> roots, Set<S> stateSet,
+	    List<S> pending, List<S> pendingNext) {
+	try (DataInputStream in = checkpoint.read(STATES_FILE)) {
+	    if (in == null)
+		return -1;
+	    if (in.readInt() != STATES_MAGIC)
+		throw new IllegalStateException("The checkpoint in " + checkpoint.getDirectory() + " is corrupt.");
+
+	    List<S> saved = new ArrayList<S>();
+	    for (int n = in.readInt(); n > 0; n--)
+		saved.add(readState(in));
+	    if (!saved.equals(new ArrayList<S>(roots)))
+		throw new IllegalStateException(
+			"The checkpoint in " + checkpoint.getDirectory() + " was saved for other root states.");
+
+	    for (int n = in.readInt(); n > 0; n--)
+		stateSet.add(readState(in));
+	    for (int n = in.readInt(); n > 0; n--)
+		pending.add(readState(in));
+	    for (int n = in.readInt(); n > 0; n--)
+		pendingNext.add(readState(in));
+	    return in.readInt();
+	} catch (IOException e) {
+	    throw new UncheckedIOException(e);
+	}
+    }
+
+    /**
+     * Return true if the heap is nearly full
+     */
+    private static boolean isHeapFull() {
+	MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+	return heap.getMax() > 0 && heap.getUsed() > heap.getMax() * MemoryBudget.HEAP_LIMIT;
+    }
+
+    /**
+     * Construct a view of the specified tree rooted at the specified state. The
+     * view shares every array of the tree, so it takes constant time and space
+     * apart from locating the state.
+     */
+    protected GameTree(GameTree<P, A, S> tree, S root) {
+	if (tree == null)
+	    throw new NullPointerException("The specified game tree must not be null.");
+	if (root == null)
+	    throw new NullPointerException("The specified root state must not be null.");
+
+	int r = Arrays.binarySearch(tree.states, root);
+	if (r < 0)
+	    throw new IllegalArgumentException("The specified root state does not belong to the game tree.");
+
+	this.states = tree.states;
+	this.actions = tree.actions;
+	this.destinations = tree.destinations;
+	this.root = r;
+	this.frontier = tree.frontier;
+	this.truncated = tree.truncated;
+	this.constructionNanos = 0;
+    }
+
+    /**
+     * Return a view of this tree rooted at the specified state, which must belong
+     * to this tree (for instance, the state after an action on the root). States
+     * that are not reachable from the new root are still kept, and counted by
+     * size().
+     */
+    public abstract GameTree<P, A, S> reroot(S s);
+
+    /**
+     * Depth of a tree built until terminal states
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /**
+     * Number of states found between two reports of progress
+     */
+    private static final int PROGRESS_INTERVAL = 1024;
+
+    /**
+     * Estimated number of bytes a state takes in the tree apart from the state
+     * itself: an entry of the set it is collected in, and a slot in each array
+     */
+    private static final long NODE_BYTES = 40 + 3 * 4;
+
     /**
      * Name of folder that store result text files of state transitions
      */
@@ -120,6 +409,26 @@ public abstract class GameTree<P extends Comparable<P>, A extends Comparable<A>,
      */
     protected final int root;
 
+    /**
+     * indices of the non-terminal states without any action, in ascending order
+     */
+    private final int[] frontier;
+
+    /**
+     * whether construction stopped before the end of the game, leaving a frontier
+     */
+    private final boolean truncated;
+
+    /**
+     * wall time taken to construct this tree in nanoseconds
+     */
+    private final long constructionNanos;
+
+    /**
+     * measurements on this tree, computed on first request
+     */
+    private volatile TreeMetrics metrics = null;
+
     /**
      * Return a copy of the specified state
      */
@@ -135,6 +444,51 @@ public abstract class GameTree<P extends Comparable<P>, A extends Comparable<A>,
      */
     protected abstract A[][] getNewActionArray(int length);
 
+    /**
+     * Return the number of cells (or a similar measure of size) of the specified
+     * state, as reported to profiling events. Zero is returned by default.
+     */
+    protected int getBoardSize(S s) {
+	return 0;
+    }
+
+    /**
+     * Write the specified state to the specified output, so that readState() can
+     * read it back, for checkpoints
+     */
+    protected abstract void writeState(S s, DataOutput out) throws IOException;
+
+    /**
+     * Read a state written by writeState() from the specified input
+     */
+    protected abstract S readState(DataInput in) throws IOException;
+
+    /**
+     * Return an upper bound on the number of states reachable from the specified
+     * state, or a negative number if unknown, which is returned by default. It
+     * lets a tree that cannot fit in its memory budget be refused before it is
+     * built.
+     */
+    protected long estimateNodeCount(S s) {
+	return -1;
+    }
+
+    /**
+     * Return the estimated number of bytes retained by the specified state. By
+     * default only an object header is accounted for.
+     */
+    protected long estimateStateBytes(S s) {
+	return 16;
+    }
+
+    /**
+     * Return the estimated number of bytes retained by the specified action. By
+     * default only an object header is accounted for.
+     */
+    protected long estimateActionBytes(A a) {
+	return 16;
+    }
+
     /**
      * Return an array of permissible actions on the specified state. Null is
      * returned if the specified state is a terminal state.
@@ -189,6 +543,26 @@ public abstract class GameTree<P extends Comparable<P>, A extends Comparable<A>,
 	return Arrays.binarySearch(states, s) >= 0;
     }
 
+    /**
+     * Return true if construction stopped at its maximum depth or over its memory
+     * budget, so that some non-terminal states of this tree have no action
+     */
+    public final boolean isTruncated() {
+	return truncated;
+    }
+
+    /**
+     * Return the non-terminal states of this tree without any action, in the
+     * natural order, so that they can be evaluated or solved separately. The list
+     * is empty unless the tree is truncated.
+     */
+    public final List<S> getFrontier() {
+	List<S> l = new ArrayList<S>(frontier.length);
+	for (int i : frontier)
+	    l.add(states[i]);
+	return Collections.unmodifiableList(l);
+    }
+
     /**
      * Return total number of nodes in this tree
      */
@@ -220,10 +594,229 @@ public abstract class GameTree<P extends Comparable<P>, A extends Comparable<A>,
 	};
     }
 
+    /**
+     * Return a spliterator over states in this game tree. It is backed by the
+     * states array, so splitting it never copies any state.
+     */
+    @Override
+    public final Spliterator<S> spliterator() {
+	return Spliterators.spliterator(states, Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT
+		| Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    /**
+     * Return a sequential stream over states in this game tree
+     */
+    public final Stream<S> stream() {
+	return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Return a parallel stream over states in this game tree
+     */
+    public final Stream<S> parallelStream() {
+	return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Return a sequential stream over all transitions in this game tree
+     */
+    public final Stream<Edge<A, S>> edges() {
+	return edgeStream(false);
+    }
+
+    /**
+     * Return a parallel stream over all transitions in this game tree
+     */
+    public final Stream<Edge<A, S>> parallelEdges() {
+	return edgeStream(true);
+    }
+
+    /**
+     * Return a stream of transitions split by the source state. Terminal states
+     * contribute no transition.
+     */
+    private Stream<Edge<A, S>> edgeStream(boolean parallel) {
+	IntStream sources = IntStream.range(0, states.length).filter(s -> actions[s] != null);
+	if (parallel)
+	    sources = sources.parallel();
+
+	return sources.boxed().flatMap(s -> IntStream.range(0, actions[s].length)
+		.mapToObj(a -> new Edge<A, S>(states[s], actions[s][a], states[destinations[s][a]])));
+    }
+
+    /**
+     * A transition from a state to another via an action
+     *
+     * @param <A> Type of action
+     * @param <S> Type of state
+     */
+    public static final class Edge<A, S> {
+
+	/**
+	 * The state on which the action is applied
+	 */
+	public final S source;
+
+	/**
+	 * The applied action
+	 */
+	public final A action;
+
+	/**
+	 * The state that results from applying the action on the source
+	 */
+	public final S destination;
+
+	Edge(S source, A action, S destination) {
+	    this.source = source;
+	    this.action = action;
+	    this.destination = destination;
+	}
+    }
+
+    /**
+     * Return measurements on this tree. They are computed on the first call only
+     * since the tree never changes after construction.
+     */
+    public final TreeMetrics getMetrics() {
+	TreeMetrics m = metrics;
+	if (m == null)
+	    metrics = m = measure();
+	return m;
+    }
+
+    /**
+     * Measure this tree in a single breadth-first pass from the root
+     */
+    private TreeMetrics measure() {
+	int[] depth = new int[states.length];
+	Arrays.fill(depth, -1);
+	int[] queue = new int[states.length];
+	int head = 0, tail = 0, maxDepth = 0;
+	depth[root] = 0;
+	queue[tail++] = root;
+	while (head < tail) {
+	    int s = queue[head++];
+	    if (actions[s] == null)
+		continue;
+	    for (int d : destinations[s])
+		if (depth[d] < 0) {
+		    depth[d] = depth[s] + 1;
+		    maxDepth = Math.max(maxDepth, depth[d]);
+		    queue[tail++] = d;
+		}
+	}
+
+	int[] byDepth = new int[maxDepth + 1];
+	long edges = 0;
+	int inner = 0, wins = 0, losses = 0, ties = 0;
+
+	// arrays of states, actions and destinations with 16-byte headers and
+	// 4-byte references
+	long bytes = 3 * (16 + 4L * states.length);
+	P player = states[root].getPlayer();
+	for (int s = 0; s < states.length; s++) {
+	    if (depth[s] >= 0)
+		byDepth[depth[s]]++;
+	    bytes += estimateStateBytes(states[s]);
+
+	    if (actions[s] != null) {
+		inner++;
+		edges += actions[s].length;
+		bytes += 2 * (16 + 4L * actions[s].length);
+		for (A a : actions[s])
+		    bytes += estimateActionBytes(a);
+	    } else if (states[s].isTerminated()) {
+		P w = states[s].getWinner();
+		if (w == null)
+		    ties++;
+		else if (w.equals(player))
+		    wins++;
+		else
+		    losses++;
+	    }
+	}
+
+	// every transition generated during construction, as well as the root, looks
+	// up the set of known states; only the first lookup of each state misses
+	long lookups = edges + 1;
+	return new TreeMetrics(byDepth, states.length, edges, inner, wins, losses, ties, constructionNanos, bytes,
+		lookups - states.length, lookups);
+    }
+
+    /**
+     * Publish measurements on this tree as a platform MBean with the specified
+     * name and return the name it is registered under
+     */
+    public final ObjectName registerMBean(String name) throws JMException {
+	ObjectName on = new ObjectName("solver:type=GameTree,name=" + ObjectName.quote(name));
+	ManagementFactory.getPlatformMBeanServer().registerMBean(new GameTreeMXBean() {
+
+	    @Override
+	    public int[] getNodeCountByDepth() {
+		return getMetrics().getNodeCountByDepth();
+	    }
+
+	    @Override
+	    public int getNodeCount() {
+		return getMetrics().getNodeCount();
+	    }
+
+	    @Override
+	    public long getEdgeCount() {
+		return getMetrics().getEdgeCount();
+	    }
+
+	    @Override
+	    public double getAverageBranchingFactor() {
+		return getMetrics().getAverageBranchingFactor();
+	    }
+
+	    @Override
+	    public int getTerminalWins() {
+		return getMetrics().getTerminalWins();
+	    }
+
+	    @Override
+	    public int getTerminalLosses() {
+		return getMetrics().getTerminalLosses();
+	    }
+
+	    @Override
+	    public int getTerminalTies() {
+		return getMetrics().getTerminalTies();
+	    }
+
+	    @Override
+	    public long getConstructionNanos() {
+		return getMetrics().getConstructionNanos();
+	    }
+
+	    @Override
+	    public double getNodesPerSecond() {
+		return getMetrics().getNodesPerSecond();
+	    }
+
+	    @Override
+	    public long getEstimatedRetainedBytes() {
+		return getMetrics().getEstimatedRetainedBytes();
+	    }
+
+	    @Override
+	    public double getTranspositionHitRate() {
+		return getMetrics().getTranspositionHitRate();
+	    }
+	}, on);
+	return on;
+    }
+
     /**
      * Write all states into file
      */
     public final void print() throws IOException {
+	SolverEvents.Print event = new SolverEvents.Print();
+	event.begin();
 
 	// create the folder if not existed
 	Path p = Paths.get(DIR_PATHNAME);
@@ -247,8 +840,8 @@ public abstract class GameTree<P extends Comparable<P>, A extends Comparable<A>,
 	    sb.append(System.lineSeparator());
 	    sb.append(System.lineSeparator());
 
-	    // the destinations if exist
-	    if (!states[s].isTerminated())
+	    // the destinations if exist; frontier states have none
+	    if (actions[s] != null)
 		for (int d = 0; d < destinations[s].length; d++) {
 		    sb.append(states[destinations[s][d]].toString());
 		    sb.append(System.lineSeparator());
@@ -257,6 +850,14 @@ public abstract class GameTree<P extends Comparable<P>, A extends Comparable<A>,
 	    // write to file
 	    Files.writeString(Paths.get(DIR_PATHNAME, Integer.toString(s)), sb.toString(), StandardCharsets.UTF_8,
 		    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+	    event.bytes += sb.length();
+	}
+
+	event.end();
+	if (event.shouldCommit()) {
+	    event.boardSize = getBoardSize(states[root]);
+	    event.nodes = states.length;
+	    event.commit();
 	}
     }
 
@@ -0,0 +1,32 @@
+package solver;
+
+/**
+ * Management interface publishing measurements of a game tree over JMX
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public interface GameTreeMXBean {
+
+    int[] getNodeCountByDepth();
+
+    int getNodeCount();
+
+    long getEdgeCount();
+
+    double getAverageBranchingFactor();
+
+    int getTerminalWins();
+
+    int getTerminalLosses();
+
+    int getTerminalTies();
+
+    long getConstructionNanos();
+
+    double getNodesPerSecond();
+
+    long getEstimatedRetainedBytes();
+
+    double getTranspositionHitRate();
+
+}
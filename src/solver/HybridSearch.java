@@ -0,0 +1,82 @@
+package solver;
+
+/**
+ * A search that plays by a bounded heuristic search while much of the game is
+ * left and solves exactly once little is left. Positions with at most the
+ * threshold of Rules.estimateRemainingActions() are searched by an exhaustive
+ * alpha-beta search with a transposition table; the others by a Monte Carlo
+ * tree search within its time budget.
+ * 
+ * @author Tin Leelavimolsilp
+ *
+ * @param <P> Type of player
+ * @param <A> Type of action
+ * @param <S> Type of state
+ */
+public class HybridSearch<P extends Comparable<P>, A extends Comparable<A>, S extends State<P, A>> {
+
+    /**
+     * Rules of the game
+     */
+    private final Rules<P, A, S> rules;
+
+    /**
+     * Largest number of remaining actions solved exactly
+     */
+    private final int threshold;
+
+    /**
+     * Search of the endgame
+     */
+    private final AlphaBetaSearch<P, A, S> exact;
+
+    /**
+     * Search of the opening and middle game
+     */
+    private final MonteCarloSearch<P, A, S> heuristic;
+
+    /**
+     * Construct a search that switches at the specified threshold
+     * 
+     * @param rules     rules of the game
+     * @param threshold largest number of remaining actions solved exactly
+     * @param exact     a search until terminal states
+     * @param heuristic a search bounded in time
+     */
+    public HybridSearch(Rules<P, A, S> rules, int threshold, AlphaBetaSearch<P, A, S> exact,
+	    MonteCarloSearch<P, A, S> heuristic) {
+	if (rules == null)
+	    throw new NullPointerException("The specified rules must not be null.");
+	if (exact == null)
+	    throw new NullPointerException("The specified exact search must not be null.");
+	if (heuristic == null)
+	    throw new NullPointerException("The specified heuristic search must not be null.");
+	if (threshold < 0)
+	    throw new IllegalArgumentException("The specified threshold must not be negative.");
+
+	this.rules = rules;
+	this.threshold = threshold;
+	this.exact = exact;
+	this.heuristic = heuristic;
+    }
+
+    /**
+     * Return true if the specified state is solved exactly
+     */
+    public boolean isExact(S s) {
+	if (s == null)
+	    throw new NullPointerException("The specified state must not be null.");
+
+	return rules.estimateRemainingActions(s) <= threshold;
+    }
+
+    /**
+     * Search the specified state by the search its remaining actions call for and
+     * return its value with respect to its player along with the best actions
+     * found. The state itself is left unchanged.
+     */
+    public Evaluation<A> evaluate(S root) {
+	return isExact(root) ? exact.evaluate(root) : heuristic.evaluate(root);
+    }
+
+}
@@ -0,0 +1,139 @@
+package solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies that many threads may record into without locking.
+ * Latencies are counted in buckets that grow exponentially, 16 to each power of
+ * two, so a percentile is within about 6% of the exact one while the histogram
+ * takes a fixed 8 KB.
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public final class LatencyRecorder {
+
+    /**
+     * Bits of a latency kept below its leading one bit
+     */
+    private static final int SUB_BITS = 4;
+
+    /**
+     * Number of buckets for each power of two
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * Number of latencies in each bucket
+     */
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS + 1) * SUB_BUCKETS);
+
+    /**
+     * Number and sum of all latencies
+     */
+    private final LongAdder count = new LongAdder(), sum = new LongAdder();
+
+    /**
+     * Time of construction, or of the last reset
+     */
+    private volatile long startNanos = System.nanoTime();
+
+    /**
+     * Record a latency of the specified nanoseconds
+     */
+    public void record(long nanos) {
+	if (nanos < 0)
+	    throw new IllegalArgumentException("The specified latency must not be negative.");
+
+	counts.incrementAndGet(bucket(nanos));
+	count.increment();
+	sum.add(nanos);
+    }
+
+    /**
+     * Return the bucket of the specified latency
+     */
+    private static int bucket(long nanos) {
+	if (nanos < SUB_BUCKETS)
+	    return (int) nanos;
+
+	int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+	int mantissa = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+	return (exponent - SUB_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    /**
+     * Return the largest latency that falls into the specified bucket
+     */
+    private static long highest(int bucket) {
+	if (bucket < SUB_BUCKETS)
+	    return bucket;
+
+	int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+	long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+	return lowest + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+    /**
+     * Return the number of latencies recorded
+     */
+    public long getCount() {
+	return count.sum();
+    }
+
+    /**
+     * Return the mean latency in nanoseconds, or zero if none is recorded
+     */
+    public double getMean() {
+	long n = count.sum();
+	return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Return the latency in nanoseconds that the specified fraction of latencies
+     * do not exceed, such as 0.99 for the 99th percentile, or zero if none is
+     * recorded
+     */
+    public long getPercentile(double fraction) {
+	if (!(fraction >= 0 && fraction <= 1))
+	    throw new IllegalArgumentException("The specified fraction must be between 0 and 1.");
+
+	long total = 0;
+	for (int b = 0; b < counts.length(); b++)
+	    total += counts.get(b);
+	long rank = Math.max(1, (long) Math.ceil(fraction * total));
+	long seen = 0;
+	for (int b = 0; b < counts.length(); b++)
+	    if ((seen += counts.get(b)) >= rank)
+		return highest(b);
+	return 0;
+    }
+
+    /**
+     * Return the number of latencies recorded per second since construction or
+     * the last reset
+     */
+    public double getRate() {
+	long nanos = System.nanoTime() - startNanos;
+	return nanos <= 0 ? 0 : count.sum() * 1e9 / nanos;
+    }
+
+    /**
+     * Forget every latency recorded. Latencies recorded at the same time may or
+     * may not be kept.
+     */
+    public void reset() {
+	for (int b = 0; b < counts.length(); b++)
+	    counts.set(b, 0);
+	count.reset();
+	sum.reset();
+	startNanos = System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+	return "count=" + getCount() + " rate=" + String.format("%.1f", getRate()) + "/s p50="
+		+ getPercentile(0.5) / 1000 + "us p99=" + getPercentile(0.99) / 1000 + "us";
+    }
+
+}
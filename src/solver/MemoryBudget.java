@@ -0,0 +1,91 @@
+package solver;
+
+/**
+ * A limit on the memory a game tree may take while it is built, and what to do
+ * once the limit is reached. The memory is estimated from the states built so
+ * far; the tree also stops if the heap itself is close to full, so that a
+ * budget larger than the heap cannot end in OutOfMemoryError.
+ *
+ * @author Tin Leelavimolsilp
+ */
+public final class MemoryBudget {
+
+    /**
+     * What a game tree does when its construction runs over the budget
+     */
+    public enum Policy {
+
+	/**
+	 * Throw IllegalStateException, before building at all if the tree is
+	 * estimated not to fit
+	 */
+	ABORT,
+
+	/**
+	 * Stop expanding states, leaving those not yet expanded as the frontier of a
+	 * depth-limited tree
+	 */
+	TRUNCATE
+    }
+
+    /**
+     * No limit at all, as with the constructors without a budget
+     */
+    public static final MemoryBudget UNLIMITED = new MemoryBudget(Long.MAX_VALUE, Policy.ABORT);
+
+    /**
+     * Fraction of the maximum heap above which construction stops regardless of
+     * the budget
+     */
+    static final double HEAP_LIMIT = 0.9;
+
+    /**
+     * Number of bytes the tree may take
+     */
+    private final long bytes;
+
+    /**
+     * What to do once over budget
+     */
+    private final Policy policy;
+
+    /**
+     * Construct a budget of the specified number of bytes
+     */
+    public MemoryBudget(long bytes, Policy policy) {
+	if (policy == null)
+	    throw new NullPointerException("The specified policy must not be null.");
+	if (bytes <= 0)
+	    throw new IllegalArgumentException("The specified number of bytes must be positive.");
+
+	this.bytes = bytes;
+	this.policy = policy;
+    }
+
+    /**
+     * Return the number of bytes the tree may take
+     */
+    public long getBytes() {
+	return bytes;
+    }
+
+    /**
+     * Return what to do once over budget
+     */
+    public Policy getPolicy() {
+	return policy;
+    }
+
+    /**
+     * Return false only for the unlimited budget
+     */
+    public boolean isLimited() {
+	return this != UNLIMITED;
+    }
+
+    @Override
+    public String toString() {
+	return isLimited() ? policy + " over " + bytes + " bytes" : "unlimited";
+    }
+
+}
@@ -0,0 +1,242 @@
+package solver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A Monte Carlo tree search (UCT) over states rather than over a built game
+ * tree. Each playout descends the search tree by the upper confidence bound of
+ * the actions, adds one state to it and plays random actions to the end of the
+ * game. The search stops after a time budget or a number of playouts, whichever
+ * comes first, so its latency is bounded whatever the size of the game.
+ * 
+ * @author Tin Leelavimolsilp
+ *
+ * @param <P> Type of player
+ * @param <A> Type of action
+ * @param <S> Type of state
+ */
+public class MonteCarloSearch<P extends Comparable<P>, A extends Comparable<A>, S extends State<P, A>> {
+
+    /**
+     * Weight of exploration in the upper confidence bound
+     */
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    /**
+     * Rules of the game
+     */
+    private final Rules<P, A, S> rules;
+
+    /**
+     * Longest time spent by a search in nanoseconds
+     */
+    private final long budgetNanos;
+
+    /**
+     * Largest number of playouts of a search
+     */
+    private final int maxPlayouts;
+
+    /**
+     * Source of the random actions
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Number of playouts of the last search
+     */
+    private volatile int playouts;
+
+    /**
+     * Construct a search that stops after the specified time
+     */
+    public MonteCarloSearch(Rules<P, A, S> rules, Duration budget) {
+	this(rules, budget, Integer.MAX_VALUE, new SplittableRandom());
+    }
+
+    /**
+     * Construct a search that stops after the specified time or the specified
+     * number of playouts, whichever comes first
+     * 
+     * @param rules       rules of the game
+     * @param budget      longest time spent by a search
+     * @param maxPlayouts largest number of playouts of a search
+     * @param random      source of the random actions
+     */
+    public MonteCarloSearch(Rules<P, A, S> rules, Duration budget, int maxPlayouts, SplittableRandom random) {
+	if (rules == null)
+	    throw new NullPointerException("The specified rules must not be null.");
+	if (budget == null)
+	    throw new NullPointerException("The specified budget must not be null.");
+	if (random == null)
+	    throw new NullPointerException("The specified random must not be null.");
+	if (budget.isNegative() || budget.isZero())
+	    throw new IllegalArgumentException("The specified budget must be positive.");
+	if (maxPlayouts <= 0)
+	    throw new IllegalArgumentException("The specified number of playouts is not positive.");
+
+	this.rules = rules;
+	this.budgetNanos = budget.toNanos();
+	this.maxPlayouts = maxPlayouts;
+	this.random = random;
+    }
+
+    /**
+     * Search the specified state and return its estimated value with respect to
+     * its player along with the most visited action. The state itself is left
+     * unchanged.
+     */
+    public synchronized Evaluation<A> evaluate(S root) {
+	if (root == null)
+	    throw new NullPointerException("The specified state must not be null.");
+	if (root.isTerminated())
+	    return new Evaluation<A>(rules.evaluateTerminalState(root, root.getPlayer()), null);
+
+	long deadline = System.nanoTime() + budgetNanos;
+	P player = root.getPlayer();
+	S state = rules.constructNewState(root);
+	Node top = new Node(state);
+	List<Node> path = new ArrayList<Node>();
+	List<A> done = new ArrayList<A>();
+	int n = 0;
+	do {
+	    path.clear();
+	    done.clear();
+
+	    // descend while every action of the node has been tried
+	    Node node = top;
+	    path.add(node);
+	    while (node.actions != null && node.expanded == node.actions.length) {
+		int a = node.select();
+		state.doAction(node.actions[a]);
+		done.add(node.actions[a]);
+		node = node.children.get(a);
+		path.add(node);
+	    }
+
+	    // add one untried action to the search tree
+	    if (node.actions != null) {
+		int a = node.expanded + random.nextInt(node.actions.length - node.expanded);
+		node.swap(node.expanded, a);
+		state.doAction(node.actions[node.expanded]);
+		done.add(node.actions[node.expanded]);
+		Node child = new Node(state);
+		node.children.add(child);
+		node.expanded++;
+		node = child;
+		path.add(node);
+	    }
+
+	    // play at random to the end of the game
+	    while (!state.isTerminated()) {
+		A[] actions = state.getAction();
+		A a = actions[random.nextInt(actions.length)];
+		state.doAction(a);
+		done.add(a);
+	    }
+	    float value = rules.evaluateTerminalState(state, player);
+	    for (int i = done.size() - 1; i >= 0; i--)
+		state.undoAction(done.get(i));
+
+	    // each node is credited to the player who took the action into it
+	    for (int i = 0; i < path.size(); i++) {
+		Node p = path.get(i);
+		p.visits++;
+		if (i > 0)
+		    p.reward += path.get(i - 1).player.equals(player) ? value : -value;
+	    }
+	    n++;
+	} while (n < maxPlayouts && System.nanoTime() < deadline);
+	playouts = n;
+
+	int best = 0;
+	for (int a = 1; a < top.expanded; a++)
+	    if (top.children.get(a).visits > top.children.get(best).visits)
+		best = a;
+	Node b = top.children.get(best);
+	return new Evaluation<A>((float) (b.reward / b.visits), Arrays.copyOfRange(top.actions, best, best + 1));
+    }
+
+    /**
+     * Return the number of playouts of the last search
+     */
+    public int getPlayouts() {
+	return playouts;
+    }
+
+    /**
+     * A state in the search tree
+     */
+    private final class Node {
+
+	/**
+	 * The player to move on the state
+	 */
+	final P player;
+
+	/**
+	 * Permissible actions; those tried come first, in the order of children.
+	 * Null if the state is terminal.
+	 */
+	final A[] actions;
+
+	/**
+	 * The state after each action tried, in the order of actions
+	 */
+	final List<Node> children;
+
+	/**
+	 * Number of actions tried
+	 */
+	int expanded = 0;
+
+	/**
+	 * Number of playouts through the state
+	 */
+	int visits = 0;
+
+	/**
+	 * Sum of the values of the playouts through the state, to the player who
+	 * took the action into it
+	 */
+	double reward = 0;
+
+	Node(S s) {
+	    this.player = s.getPlayer();
+	    this.actions = s.getAction();
+	    this.children = actions == null ? null : new ArrayList<Node>(actions.length);
+	}
+
+	/**
+	 * Return the index of the child with the highest upper confidence bound
+	 */
+	int select() {
+	    double log = Math.log(visits);
+	    int best = 0;
+	    double max = Double.NEGATIVE_INFINITY;
+	    for (int a = 0; a < children.size(); a++) {
+		Node c = children.get(a);
+		double bound = c.reward / c.visits + EXPLORATION * Math.sqrt(log / c.visits);
+		if (bound > max) {
+		    max = bound;
+		    best = a;
+		}
+	    }
+	    return best;
+	}
+
+	/**
+	 * Swap the actions at the specified indices
+	 */
+	void swap(int i, int j) {
+	    A a = actions[i];
+	    actions[i] = actions[j];
+	    actions[j] = a;
+	}
+    }
+
+}
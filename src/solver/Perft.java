@@ -0,0 +1,209 @@
+package solver;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A count-only walk of every sequence of actions from a state up to a given
+ * depth (performance test, or perft). No state is kept apart from one working
+ * copy per action of the root, which is modified and restored along the walk.
+ * The actions of the root are walked in parallel.
+ * <P>
+ * The counts serve as an oracle for changes to the rules of a game, and the
+ * rate of the walk as a measure of the raw speed of its states.
+ * 
+ * @author Tin Leelavimolsilp
+ *
+ * @param <P> Type of player
+ * @param <A> Type of action
+ * @param <S> Type of state
+ */
+public final class Perft<P extends Comparable<P>, A extends Comparable<A>, S extends State<P, A>> {
+
+    /**
+     * Rules of the game
+     */
+    private final Rules<P, A, S> rules;
+
+    public Perft(Rules<P, A, S> rules) {
+	if (rules == null)
+	    throw new NullPointerException("The specified rules must not be null.");
+
+	this.rules = rules;
+    }
+
+    /**
+     * Walk every sequence of at most the specified number of actions from the
+     * specified state and return the counts. The state itself is left unchanged.
+     */
+    public Result run(S root, int depth) {
+	if (root == null)
+	    throw new NullPointerException("The specified state must not be null.");
+	if (depth < 0)
+	    throw new IllegalArgumentException("The specified depth is negative.");
+
+	long start = System.nanoTime();
+	P player = root.getPlayer();
+	Result result = new Result(depth);
+	result.visit(root, 0, player);
+
+	A[] actions = root.getAction();
+	if (actions != null && depth > 0) {
+	    Result[] parts = IntStream.range(0, actions.length).parallel().mapToObj(i -> {
+		Result part = new Result(depth);
+		S s = rules.constructNewState(root);
+		s.doAction(actions[i]);
+		walk(s, 1, depth, player, part);
+		return part;
+	    }).toArray(Result[]::new);
+	    for (Result part : parts)
+		result.add(part);
+	}
+
+	result.nanos = System.nanoTime() - start;
+	return result;
+    }
+
+    /**
+     * Count the specified state, at the specified depth, and every state below it
+     */
+    private void walk(S s, int d, int depth, P player, Result result) {
+	result.visit(s, d, player);
+	if (d == depth)
+	    return;
+
+	A[] actions = s.getAction();
+	if (actions == null)
+	    return;
+	for (A a : actions) {
+	    s.doAction(a);
+	    walk(s, d + 1, depth, player, result);
+	    s.undoAction(a);
+	}
+    }
+
+    /**
+     * Counts of a walk per depth from the root
+     */
+    public static final class Result {
+
+	/**
+	 * Number of states at each depth; i.e. nodes[d] is the number of sequences of
+	 * d actions
+	 */
+	private final long[] nodes;
+
+	/**
+	 * Number of terminal states at each depth won, lost or tied by the player of
+	 * the root
+	 */
+	private final long[] wins, losses, ties;
+
+	/**
+	 * Wall time of the walk in nanoseconds
+	 */
+	private long nanos;
+
+	private Result(int depth) {
+	    nodes = new long[depth + 1];
+	    wins = new long[depth + 1];
+	    losses = new long[depth + 1];
+	    ties = new long[depth + 1];
+	}
+
+	/**
+	 * Count the specified state at the specified depth
+	 */
+	private <P extends Comparable<P>> void visit(State<P, ?> s, int d, P player) {
+	    nodes[d]++;
+	    if (s.isTerminated()) {
+		P w = s.getWinner();
+		if (w == null)
+		    ties[d]++;
+		else if (w.equals(player))
+		    wins[d]++;
+		else
+		    losses[d]++;
+	    }
+	}
+
+	/**
+	 * Add the counts of the specified result into this result
+	 */
+	private void add(Result r) {
+	    for (int d = 0; d < nodes.length; d++) {
+		nodes[d] += r.nodes[d];
+		wins[d] += r.wins[d];
+		losses[d] += r.losses[d];
+		ties[d] += r.ties[d];
+	    }
+	}
+
+	/**
+	 * Return the number of states at each depth
+	 */
+	public long[] getNodes() {
+	    return nodes.clone();
+	}
+
+	/**
+	 * Return the number of terminal states at each depth won by the player of the
+	 * root
+	 */
+	public long[] getWins() {
+	    return wins.clone();
+	}
+
+	/**
+	 * Return the number of terminal states at each depth lost by the player of the
+	 * root
+	 */
+	public long[] getLosses() {
+	    return losses.clone();
+	}
+
+	/**
+	 * Return the number of tied terminal states at each depth
+	 */
+	public long[] getTies() {
+	    return ties.clone();
+	}
+
+	/**
+	 * Return the total number of states over all depths
+	 */
+	public long getTotalNodes() {
+	    return Arrays.stream(nodes).sum();
+	}
+
+	/**
+	 * Return the wall time of the walk in nanoseconds
+	 */
+	public long getNanos() {
+	    return nanos;
+	}
+
+	/**
+	 * Return the number of states walked per second
+	 */
+	public double getNodesPerSecond() {
+	    return nanos == 0 ? 0 : getTotalNodes() * 1e9 / nanos;
+	}
+
+	@Override
+	public String toString() {
+	    StringBuilder sb = new StringBuilder();
+	    sb.append("depth\tnodes\twins\tlosses\tties");
+	    sb.append(System.lineSeparator());
+	    for (int d = 0; d < nodes.length; d++) {
+		sb.append(d).append('\t').append(nodes[d]).append('\t').append(wins[d]).append('\t').append(losses[d])
+			.append('\t').append(ties[d]);
+		sb.append(System.lineSeparator());
+	    }
+	    sb.append(getTotalNodes()).append(" nodes in ").append(nanos / 1_000_000).append(" ms, ")
+		    .append(String.format("%.0f", getNodesPerSecond())).append(" nodes/s");
+	    return sb.toString();
+	}
+    }
+
+}
@@ -0,0 +1,33 @@
+package solver;
+
+/**
+ * A receiver of progress of building and solving a game tree. Callbacks are made
+ * on the thread doing the work, so they should return quickly. A callback may
+ * throw an unchecked exception, such as CancellationException, to abort the
+ * work.
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public interface ProgressListener {
+
+    /**
+     * A listener that ignores every progress
+     */
+    ProgressListener NONE = new ProgressListener() {
+    };
+
+    /**
+     * Called from time to time while a game tree is built, with the number of
+     * states found so far
+     */
+    default void nodesBuilt(int nodes) {
+    }
+
+    /**
+     * Called from time to time while a game tree is solved, with the number of
+     * states solved so far out of the total
+     */
+    default void nodesSolved(int solved, int total) {
+    }
+
+}
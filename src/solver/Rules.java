@@ -0,0 +1,50 @@
+package solver;
+
+/**
+ * Rules of a game needed by the searches that work on states directly rather
+ * than on a fully built game tree
+ * 
+ * @author Tin Leelavimolsilp
+ *
+ * @param <P> Type of player
+ * @param <A> Type of action
+ * @param <S> Type of state
+ */
+public abstract class Rules<P extends Comparable<P>, A extends Comparable<A>, S extends State<P, A>> {
+
+    /**
+     * Return a copy of the specified state
+     */
+    public abstract S constructNewState(S s);
+
+    /**
+     * Return value of the given terminal state with respect to the specified
+     * player
+     * 
+     * @return a positive value if it's a win for the player, a negative value if
+     *         it's a loss; zero if it's a tie
+     */
+    public abstract float evaluateTerminalState(S s, P p);
+
+    /**
+     * Return an estimated value of the given non-terminal state with respect to
+     * the specified player, used where a search stops before the end of the game.
+     * The value should lie strictly between the values of a loss and a win. Zero
+     * is returned by default.
+     */
+    public float evaluateState(S s, P p) {
+	return 0;
+    }
+
+    /**
+     * Return an estimate of the number of actions left until the end of the game
+     * from the given state, such as the number of empty cells, used to decide how
+     * a state is searched. The number of permissible actions is returned by
+     * default.
+     */
+    public int estimateRemainingActions(S s) {
+	A[] a = s.getAction();
+	return a == null ? 0 : a.length;
+    }
+
+}
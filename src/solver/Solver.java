@@ -1,16 +1,41 @@
 package solver;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
+import java.util.NoSuchElementException;
 import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 import tictactoe.Mark;
 
 /**
  * An implementation of game-solving algorithm to solve turn-based game.
+ * <P>
+ * A solver may be shared by many threads. The tree is solved and the policy
+ * generated at most once, under a lock, by the first thread that needs them;
+ * the results are then published through volatile fields and every later query
+ * reads them without locking.
  * 
  * @author Tin Leelavimolsilp
  *
@@ -23,50 +48,336 @@ public abstract class Solver<P extends Comparable<P>, A extends Comparable<A>, S
 
     /**
      * Solve the game tree and return value of the initial state with respect to the
-     * player of the initial state.
+     * player of the initial state. The tree is solved on the first call only.
      * 
      * @return a positive value if it's a win for the player; a negative value if
      *         it's a loss; zero if it's a tie
      */
-    public float solve() 
-    {    	
-    	int maxPlayerVal = 0;
-    	int minPlayerVal = 0;
-    	int tieVal = 0;
-    	
-    	P maxPlayerMark = tree.states[0].getPlayer();
-    	P minPlayerMark = getOpponent(maxPlayerMark);
-    	
-    	for(int i = 0; i < tree.actions.length; i ++)
-    	{
-    		if(tree.actions[i] == null)
-    		{
-    			if(tree.states[i].getPlayer() == maxPlayerMark)
-    			{
-    				minPlayerVal ++;
-    			}
-    			else if (tree.states[i].getPlayer() == minPlayerMark)
-    			{
-    				maxPlayerVal ++;
-    			}
-    			else
-    			{
-    				tieVal ++;
-    			}
-    		}
-    	}
-    	if(maxPlayerVal > minPlayerVal && maxPlayerVal > tieVal)
-    	{
-    		return 1;
-    	}
-    	else if(minPlayerVal > maxPlayerVal && minPlayerVal > tieVal)
-    	{
-    		return -1;
-    	}
-    	else
-    	{
-    		return 0;
-    	}
+    public float solve() {
+	return solve(ProgressListener.NONE);
+    }
+
+    /**
+     * Solve the game tree as solve() does while reporting the progress to the
+     * specified listener
+     */
+    public final float solve(ProgressListener progress) {
+	return solve(progress, Checkpoint.NONE);
+    }
+
+    /**
+     * Solve the game tree as solve() does, saving the values of the states solved
+     * so far to the specified checkpoint from time to time. If the checkpoint
+     * holds values saved for the same tree, solving resumes from them.
+     */
+    public final float solve(ProgressListener progress, Checkpoint checkpoint) {
+	if (progress == null)
+	    throw new NullPointerException("The specified progress listener must not be null.");
+	if (checkpoint == null)
+	    throw new NullPointerException("The specified checkpoint must not be null.");
+
+	Values<P> v = values;
+	return (v != null ? v : computeValues(progress, checkpoint)).get(tree.root);
+    }
+
+    /**
+     * Return the solved values, solving the tree first if it has not been solved
+     */
+    private Values<P> getValues() {
+	Values<P> v = values;
+	return v != null ? v : computeValues(ProgressListener.NONE, Checkpoint.NONE);
+    }
+
+    /**
+     * Solve the game tree unless another thread has done it, and publish the
+     * values
+     */
+    private synchronized Values<P> computeValues(ProgressListener progress, Checkpoint checkpoint) {
+	if (values != null)
+	    return values;
+
+	long start = System.nanoTime();
+	SolverEvents.Solve event = new SolverEvents.Solve();
+	event.begin();
+
+	// group the states by their height so that every state is solved after all
+	// of its destinations; states of the same height are solved in parallel
+	int[][] layers = getLayers();
+	float[] value = new float[tree.states.length];
+	int done = loadValues(checkpoint, value, layers.length), count = 0;
+	for (int h = 0; h < done; h++)
+	    count += layers[h].length;
+	long saved = System.nanoTime();
+	for (int h = done; h < layers.length; h++) {
+	    IntStream.of(layers[h]).parallel().forEach(s -> value[s] = backup(s, value));
+	    progress.nodesSolved(count += layers[h].length, value.length);
+	    if (checkpoint.isDue(saved) || (h == layers.length - 1 && checkpoint.getDirectory() != null)) {
+		saveValues(checkpoint, value, h + 1);
+		saved = System.nanoTime();
+	    }
+	}
+
+	float v = value[tree.root];
+	Values<P> solved = new Values<P>(value, 1, getWinner(v));
+	solveNanos = System.nanoTime() - start;
+
+	event.end();
+	if (event.shouldCommit()) {
+	    event.boardSize = tree.getBoardSize(tree.states[tree.root]);
+	    event.nodes = tree.states.length;
+	    event.value = v;
+	    event.commit();
+	}
+	return values = solved;
+    }
+
+    /**
+     * Solve the game tree on the specified executor, such as a pool of virtual
+     * threads, and complete the returned future with the value solve() returns.
+     * Cancelling the future aborts the solving at the next report of progress.
+     */
+    public final CompletableFuture<Float> solveAsync(Executor executor, ProgressListener progress) {
+	return supplyAsync(p -> solve(p), executor, progress);
+    }
+
+    /**
+     * Solve the game tree on the specified executor without reporting progress
+     */
+    public final CompletableFuture<Float> solveAsync(Executor executor) {
+	return solveAsync(executor, ProgressListener.NONE);
+    }
+
+    /**
+     * Solve the game tree if needed on the specified executor and complete the
+     * returned future with the best actions getPolicy() returns for the specified
+     * state. Cancelling the future aborts the solving at the next report of
+     * progress.
+     */
+    public final CompletableFuture<A[]> getPolicyAsync(S s, Executor executor, ProgressListener progress) {
+	return supplyAsync(p -> {
+	    solve(p);
+	    return getPolicy(s);
+	}, executor, progress);
+    }
+
+    /**
+     * Return the best actions of the specified state on the specified executor
+     * without reporting progress
+     */
+    public final CompletableFuture<A[]> getPolicyAsync(S s, Executor executor) {
+	return getPolicyAsync(s, executor, ProgressListener.NONE);
+    }
+
+    /**
+     * Run the specified task on the specified executor and return a future of its
+     * result. The task is given a listener that forwards progress to the specified
+     * listener, and throws CancellationException once the future is cancelled so
+     * that long work stops early.
+     */
+    protected static <U> CompletableFuture<U> supplyAsync(Function<ProgressListener, U> task, Executor executor,
+	    ProgressListener progress) {
+	if (executor == null)
+	    throw new NullPointerException("The specified executor must not be null.");
+	if (progress == null)
+	    throw new NullPointerException("The specified progress listener must not be null.");
+
+	CompletableFuture<U> future = new CompletableFuture<U>();
+	ProgressListener cancellable = new ProgressListener() {
+
+	    @Override
+	    public void nodesBuilt(int nodes) {
+		if (future.isCancelled())
+		    throw new CancellationException();
+		progress.nodesBuilt(nodes);
+	    }
+
+	    @Override
+	    public void nodesSolved(int solved, int total) {
+		if (future.isCancelled())
+		    throw new CancellationException();
+		progress.nodesSolved(solved, total);
+	    }
+	};
+
+	try {
+	    executor.execute(() -> {
+		if (future.isCancelled())
+		    return;
+		try {
+		    future.complete(task.apply(cancellable));
+		} catch (Throwable t) {
+		    future.completeExceptionally(t);
+		}
+	    });
+	} catch (RejectedExecutionException e) {
+	    future.completeExceptionally(e);
+	}
+	return future;
+    }
+
+    /**
+     * Name of the checkpoint file of the values solved so far
+     */
+    private static final String VALUES_FILE = "values.ckpt";
+
+    /**
+     * First bytes of the checkpoint file of the values
+     */
+    private static final int VALUES_MAGIC = 0x56414c53;
+
+    /**
+     * Save the values of the lowest specified number of layers to the specified
+     * checkpoint
+     */
+    private void saveValues(Checkpoint checkpoint, float[] value, int layers) {
+	try {
+	    checkpoint.write(VALUES_FILE, out -> {
+		out.writeInt(VALUES_MAGIC);
+		out.writeLong(fingerprint());
+		out.writeInt(layers);
+		out.writeInt(value.length);
+		for (float v : value)
+		    out.writeFloat(v);
+	    });
+	} catch (IOException e) {
+	    throw new UncheckedIOException(e);
+	}
+    }
+
+    /**
+     * Load the values saved to the specified checkpoint into the given array and
+     * return the number of layers they cover, or zero if there is none
+     */
+    private int loadValues(Checkpoint checkpoint, float[] value, int maxLayers) {
+	try (DataInputStream in = checkpoint.read(VALUES_FILE)) {
+	    if (in == null)
+		return 0;
+	    if (in.readInt() != VALUES_MAGIC)
+		throw new IllegalStateException("The checkpoint in " + checkpoint.getDirectory() + " is corrupt.");
+	    if (in.readLong() != fingerprint())
+		throw new IllegalStateException(
+			"The checkpoint in " + checkpoint.getDirectory() + " was saved for another game tree.");
+
+	    int layers = in.readInt();
+	    if (layers < 0 || layers > maxLayers || in.readInt() != value.length)
+		throw new IllegalStateException("The checkpoint in " + checkpoint.getDirectory() + " is corrupt.");
+	    for (int s = 0; s < value.length; s++)
+		value[s] = in.readFloat();
+	    return layers;
+	} catch (IOException e) {
+	    throw new UncheckedIOException(e);
+	}
+    }
+
+    /**
+     * Return a hash of the shape of the game tree and its root, to tell whether
+     * saved values belong to it
+     */
+    private long fingerprint() {
+	long f = tree.states.length * 31L + tree.root;
+	for (int s = 0; s < tree.states.length; s++) {
+	    f = f * 31 + tree.states[s].hashCode();
+	    if (tree.actions[s] != null)
+		for (int d : tree.destinations[s])
+		    f = f * 31 + d;
+	}
+	return f;
+    }
+
+    /**
+     * Return value of the specified state to the max player given the values of
+     * its destinations
+     */
+    private float backup(int s, float[] value) {
+	S state = tree.states[s];
+	if (tree.actions[s] == null)
+	    return state.isTerminated() ? evaluateTerminalState(state, maxPlayer)
+		    : evaluateFrontierState(state, maxPlayer);
+
+	boolean max = state.getPlayer().equals(maxPlayer);
+	float best = max ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
+	for (int d : tree.destinations[s])
+	    best = max ? Math.max(best, value[d]) : Math.min(best, value[d]);
+	return best;
+    }
+
+    /**
+     * Return indices of states grouped by their height; i.e. layers[h] holds the
+     * states whose longest path to a terminal state has h actions
+     */
+    private int[][] getLayers() {
+	int[] height = new int[tree.states.length];
+	Arrays.fill(height, -1);
+	int maxHeight = 0;
+	for (int s = 0; s < height.length; s++)
+	    maxHeight = Math.max(maxHeight, computeHeight(s, height));
+
+	int[] count = new int[maxHeight + 1];
+	for (int h : height)
+	    count[h]++;
+	int[][] layers = new int[maxHeight + 1][];
+	for (int h = 0; h <= maxHeight; h++)
+	    layers[h] = new int[count[h]];
+	for (int s = 0; s < height.length; s++)
+	    layers[height[s]][--count[height[s]]] = s;
+	return layers;
+    }
+
+    /**
+     * Return height of the specified state, computing it and that of its
+     * descendants if unknown
+     */
+    private int computeHeight(int s, int[] height) {
+	if (height[s] >= 0)
+	    return height[s];
+
+	int h = 0;
+	if (tree.actions[s] != null)
+	    for (int d : tree.destinations[s])
+		h = Math.max(h, computeHeight(d, height) + 1);
+	return height[s] = h;
+    }
+
+    /**
+     * Solve the game tree once and return the value and best actions of each of
+     * the specified states, in the same order. Each value is with respect to the
+     * player of that state, assuming the game is zero-sum.
+     */
+    public final List<Evaluation<A>> evaluate(Collection<? extends S> positions) {
+	if (positions == null)
+	    throw new NullPointerException("The specified positions must not be null.");
+
+	Values<P> values = getValues();
+
+	List<Evaluation<A>> results = new ArrayList<Evaluation<A>>(positions.size());
+	for (S s : positions) {
+	    if (s == null)
+		throw new NullPointerException("The specified positions must not contain null.");
+	    int i = Arrays.binarySearch(tree.states, s);
+	    if (i < 0)
+		throw new IllegalArgumentException("The specified state " + s + " does not belong to the game tree.");
+
+	    float v = values.get(i);
+	    if (!s.getPlayer().equals(maxPlayer) && v != 0)
+		v = -v;
+	    results.add(new Evaluation<A>(v, getPolicy(s)));
+	}
+	return results;
+    }
+
+    /**
+     * Build a single game tree shared by all specified states, solve it once and
+     * return the value and best actions of each state, in the same order. The more
+     * the positions overlap, the fewer states have to be built and solved.
+     * 
+     * @param positions  the states to be evaluated
+     * @param treeOf     constructor of a game tree covering the given states
+     * @param solverOf   constructor of a solver of the given tree
+     */
+    public static <P extends Comparable<P>, A extends Comparable<A>, S extends State<P, A>, T extends GameTree<P, A, S>> List<Evaluation<A>> solveBatch(
+	    Collection<? extends S> positions, Function<Collection<? extends S>, T> treeOf,
+	    Function<T, ? extends Solver<P, A, S, T>> solverOf) {
+	return solverOf.apply(treeOf.apply(positions)).evaluate(positions);
     }
 
     /**
@@ -85,19 +396,25 @@ public abstract class Solver<P extends Comparable<P>, A extends Comparable<A>, S
     protected final P minPlayer;
 
     /**
-     * Value of each state to the max player (or the player of the initial state)
+     * Values of the states, or null if the tree has not been solved
+     */
+    private volatile Values<P> values = null;
+
+    /**
+     * Best actions of the states, or null if the policy has not been generated
      */
-    private float[] maxValue = null;
+    private volatile Policy policy = null;
 
     /**
-     * A map from the state to the best action(s)
+     * Wall time taken by the last call to solve() in nanoseconds
      */
-    private Map<S, A[]> policy = null;
+    private volatile long solveNanos = 0;
 
     /**
-     * Null if it is a tie; otherwise the winner of the initial state
+     * Number of policy queries, and those answered without solving the tree or
+     * generating the policy first
      */
-    private P winner;
+    private final LongAdder policyQueries = new LongAdder(), policyHits = new LongAdder();
 
     /**
      * Return the opponent of the specified player
@@ -112,6 +429,16 @@ public abstract class Solver<P extends Comparable<P>, A extends Comparable<A>, S
      */
     protected abstract float evaluateTerminalState(S s, P p);
 
+    /**
+     * Return an estimated value of the given non-terminal state at the frontier of
+     * a truncated tree with respect to the specified player. The value should lie
+     * strictly between the values of a loss and a win. Zero is returned by
+     * default.
+     */
+    protected float evaluateFrontierState(S s, P p) {
+	return 0;
+    }
+
     /**
      * Return a new and empty array of action type
      */
@@ -130,35 +457,84 @@ public abstract class Solver<P extends Comparable<P>, A extends Comparable<A>, S
     }
 
     /**
-     * Construct a policy or a map from a game state to an array of optimal actions.
+     * Construct a solver for the specified view of the tree solved by the
+     * specified solver, re-using the values and policy it has computed so far
      */
-    private void generatePolicy() {
-	assert maxValue != null;
+    protected Solver(Solver<P, A, S, T> solver, T tree) {
+	this(tree);
+	if (tree.states != solver.tree.states)
+	    throw new IllegalArgumentException("The specified game tree must be a view of the solved game tree.");
 
-	policy = new TreeMap<S, A[]>();
-	for (int s = 0; s < tree.states.length; s++)
+	Values<P> solved = solver.values;
+	if (solved != null) {
+	    float sign = maxPlayer.equals(solver.maxPlayer) ? solved.sign : -solved.sign;
+	    Values<P> v = new Values<P>(solved.maxValue, sign, null);
+	    this.values = new Values<P>(solved.maxValue, sign, getWinner(v.get(tree.root)));
+	    this.policy = solver.policy;
+	}
+    }
 
-	    // a terminal state will be mapped to null
-	    if (tree.states[s].isTerminated())
-		policy.put(tree.states[s], null);
+    /**
+     * Return a solver of the view of the game tree rooted at the specified state.
+     * Values and policy solved by this solver so far are shared rather than
+     * solved again.
+     */
+    public abstract Solver<P, A, S, T> reroot(S s);
 
-	    // a non-terminal state is mapped to array of best actions
-	    else {
-		Set<A> bestA = new TreeSet<A>();
-		for (int a = 0; a < tree.actions[s].length; a++)
-		    if (Math.abs(maxValue[s] - maxValue[tree.destinations[s][a]]) < 0.0001f) // accounting for numerical
-											     // overflow
-			bestA.add(tree.actions[s][a]);
+    /**
+     * Return the winner given value of the initial state
+     */
+    private P getWinner(float v) {
+	if (v > 0)
+	    return maxPlayer;
+	else if (v < 0)
+	    return minPlayer;
+	else
+	    return null;
+    }
 
-		policy.put(tree.states[s], bestA.toArray(getNewActionArray(bestA.size())));
-	    }
+    /**
+     * Construct a policy or a table from the index of a game state to the bitmask
+     * of its optimal actions. Each state is handled independently in parallel.
+     */
+    private synchronized Policy generatePolicy() {
+	if (policy != null)
+	    return policy;
+	float[] maxValue = getValues().maxValue;
+	SolverEvents.PolicyGeneration event = new SolverEvents.PolicyGeneration();
+	event.begin();
+
+	int maxActions = 0;
+	for (A[] a : tree.actions)
+	    if (a != null)
+		maxActions = Math.max(maxActions, a.length);
+	int stride = (maxActions + 63) / 64;
+
+	// a terminal state has no bit set
+	long[] table = new long[tree.states.length * stride];
+	IntStream.range(0, tree.states.length).parallel().filter(s -> tree.actions[s] != null).forEach(s -> {
+	    for (int a = 0; a < tree.actions[s].length; a++)
+		if (Math.abs(maxValue[s] - maxValue[tree.destinations[s][a]]) < 0.0001f) // accounting for numerical
+											 // overflow
+		    table[s * stride + a / 64] |= 1L << a;
+	});
+
+	Policy generated = new Policy(table, stride);
+
+	event.end();
+	if (event.shouldCommit()) {
+	    event.boardSize = tree.getBoardSize(tree.states[tree.root]);
+	    event.nodes = tree.states.length;
+	    event.commit();
+	}
+	return policy = generated;
     }
 
     /**
      * True if method solve() was called before
      */
     public final boolean solved() {
-	return maxValue != null;
+	return values != null;
     }
 
     /**
@@ -166,7 +542,8 @@ public abstract class Solver<P extends Comparable<P>, A extends Comparable<A>, S
      * returned.
      */
     public final P getWinner() {
-	return winner;
+	Values<P> v = values;
+	return v == null ? null : v.winner;
     }
 
     /**
@@ -174,22 +551,247 @@ public abstract class Solver<P extends Comparable<P>, A extends Comparable<A>, S
      * is a terminal state.
      */
     public final A[] getPolicy(S s) {
-	if (maxValue == null)
-	    solve();
-	if (policy == null)
-	    generatePolicy();
+	policyQueries.increment();
+	Policy p = policy;
+	if (p != null)
+	    policyHits.increment();
+	else
+	    p = generatePolicy();
+
+	int i = Arrays.binarySearch(tree.states, s);
+	return i < 0 ? null : getBestActions(p, i);
+    }
+
+    /**
+     * Return an array of best actions of the state at the specified index, as
+     * recorded by the policy. Null if it is a terminal state.
+     */
+    private A[] getBestActions(Policy p, int s) {
+	A[] actions = tree.actions[s];
+	if (actions == null)
+	    return null;
+
+	int count = 0;
+	for (int w = s * p.stride; w < (s + 1) * p.stride; w++)
+	    count += Long.bitCount(p.bits[w]);
+
+	A[] best = getNewActionArray(count);
+	for (int a = 0, b = 0; b < count; a++)
+	    if ((p.bits[s * p.stride + a / 64] & (1L << a)) != 0)
+		best[b++] = actions[a];
+	return best;
+    }
+
+    /**
+     * Return the strategy of the player of the initial state with the fewest
+     * states found, securing the value of the initial state. Of the best actions
+     * of each state of the player, the one whose strategy has the fewest states is
+     * kept; states of the opponent are not stored, since the strategy must answer
+     * every action of the opponent anyway.
+     * 
+     * @throws IllegalStateException if the game tree is truncated, since a
+     *                               strategy could not answer past its frontier
+     */
+    public final Strategy<P, A, S> extractStrategy() {
+	if (tree.isTruncated())
+	    throw new IllegalStateException("A strategy cannot be extracted from a truncated game tree.");
+	Values<P> values = getValues();
+
+	// the number of states of the smallest strategy from each state, smallest
+	// first, counting states shared by several paths more than once
+	int[][] layers = getLayers();
+	long[] size = new long[tree.states.length];
+	int[] choice = new int[tree.states.length];
+	for (int[] layer : layers)
+	    for (int s : layer) {
+		if (tree.actions[s] == null)
+		    continue;
+		if (tree.actions[s].length > Strategy.MAX_ACTIONS)
+		    throw new IllegalStateException(
+			    "The state " + tree.states[s] + " has more actions than a strategy can store.");
+
+		int[] d = tree.destinations[s];
+		if (tree.states[s].getPlayer().equals(maxPlayer)) {
+		    size[s] = Long.MAX_VALUE;
+		    for (int a = 0; a < d.length; a++)
+			if (Math.abs(values.get(s) - values.get(d[a])) < 0.0001f && size[d[a]] < size[s]) {
+			    size[s] = size[d[a]];
+			    choice[s] = a;
+			}
+		    size[s]++;
+		} else
+		    for (int a = 0; a < d.length; a++)
+			size[s] = Math.min(Long.MAX_VALUE - 1, size[s] + size[d[a]]);
+	    }
 
-	return policy.get(s);
+	// collect the states reachable while following the choices
+	Map<Long, Integer> chosen = new TreeMap<Long, Integer>();
+	boolean[] visited = new boolean[tree.states.length];
+	Deque<Integer> stack = new ArrayDeque<Integer>();
+	stack.push(tree.root);
+	visited[tree.root] = true;
+	while (!stack.isEmpty()) {
+	    int s = stack.pop();
+	    if (tree.actions[s] == null)
+		continue;
+
+	    int[] d = tree.destinations[s];
+	    boolean max = tree.states[s].getPlayer().equals(maxPlayer);
+	    if (max && chosen.put(tree.states[s].getKey(), choice[s]) != null)
+		throw new IllegalStateException("Two states of the strategy have the same key.");
+	    for (int a = max ? choice[s] : 0; a < (max ? choice[s] + 1 : d.length); a++)
+		if (!visited[d[a]]) {
+		    visited[d[a]] = true;
+		    stack.push(d[a]);
+		}
+	}
+
+	long[] keys = new long[chosen.size()];
+	byte[] actions = new byte[chosen.size()];
+	int i = 0;
+	for (Entry<Long, Integer> e : chosen.entrySet()) {
+	    keys[i] = e.getKey();
+	    actions[i++] = (byte) (int) e.getValue();
+	}
+	return new Strategy<P, A, S>(keys, actions);
     }
 
+    /**
+     * Return an iterator over every state paired with its best actions, in the
+     * natural order of states. Arrays of best actions are only built as the
+     * iterator reaches them.
+     */
     @Override
     public Iterator<Entry<S, A[]>> iterator() {
-	if (maxValue == null)
-	    solve();
-	if (policy == null)
-	    generatePolicy();
+	Policy current = policy;
+	Policy p = current != null ? current : generatePolicy();
+
+	return new Iterator<Entry<S, A[]>>() {
+
+	    /**
+	     * Index of states array
+	     */
+	    private int i = 0;
+
+	    @Override
+	    public boolean hasNext() {
+		return i < tree.states.length;
+	    }
+
+	    @Override
+	    public Entry<S, A[]> next() {
+		if (i >= tree.states.length)
+		    throw new NoSuchElementException();
+		int s = i++;
+		return new AbstractMap.SimpleImmutableEntry<S, A[]>(tree.states[s], getBestActions(p, s));
+	    }
+	};
+    }
+
+    /**
+     * Return measurements on this solver and its game tree
+     */
+    public final SolverMetrics getMetrics() {
+	return new SolverMetrics(tree.getMetrics(), solved(), solveNanos, policyQueries.sum(), policyHits.sum());
+    }
+
+    /**
+     * Publish measurements on this solver as a platform MBean with the specified
+     * name and return the name it is registered under. The game tree is published
+     * separately by its own registerMBean().
+     */
+    public final ObjectName registerMBean(String name) throws JMException {
+	ObjectName on = new ObjectName("solver:type=Solver,name=" + ObjectName.quote(name));
+	ManagementFactory.getPlatformMBeanServer().registerMBean(new SolverMXBean() {
+
+	    @Override
+	    public boolean isSolved() {
+		return solved();
+	    }
+
+	    @Override
+	    public long getSolveNanos() {
+		return solveNanos;
+	    }
+
+	    @Override
+	    public double getSolvedNodesPerSecond() {
+		return getMetrics().getSolvedNodesPerSecond();
+	    }
+
+	    @Override
+	    public long getPolicyQueries() {
+		return policyQueries.sum();
+	    }
+
+	    @Override
+	    public double getPolicyCacheHitRate() {
+		return getMetrics().getPolicyCacheHitRate();
+	    }
+	}, on);
+	return on;
+    }
+
+    /**
+     * Values of the states of a solved tree. Instances are never modified after
+     * construction.
+     *
+     * @param <P> Type of player
+     */
+    private static final class Values<P> {
+
+	/**
+	 * Value of each state to the max player, once multiplied by sign. The array
+	 * may be shared with the solver this one was re-rooted from, whose max player
+	 * may be the opponent.
+	 */
+	final float[] maxValue;
+
+	/**
+	 * 1 if maxValue is with respect to the max player; -1 if it is with respect to
+	 * the min player
+	 */
+	final float sign;
+
+	/**
+	 * Null if it is a tie; otherwise the winner of the initial state
+	 */
+	final P winner;
+
+	Values(float[] maxValue, float sign, P winner) {
+	    this.maxValue = maxValue;
+	    this.sign = sign;
+	    this.winner = winner;
+	}
+
+	/**
+	 * Return value of the state at the specified index to the max player
+	 */
+	float get(int s) {
+	    float v = maxValue[s];
+	    return v == 0 ? 0 : sign * v;
+	}
+    }
+
+    /**
+     * Best action(s) of each state as a bitmask over its actions; i.e. the j-th
+     * action of the i-th state is a best action only if bit (j % 64) of
+     * bits[i * stride + j / 64] is set. Instances are never modified after
+     * construction.
+     */
+    private static final class Policy {
+
+	final long[] bits;
+
+	/**
+	 * Number of words of the bitmask of each state
+	 */
+	final int stride;
 
-	return policy.entrySet().iterator();
+	Policy(long[] bits, int stride) {
+	    this.bits = bits;
+	    this.stride = stride;
+	}
     }
 
 }
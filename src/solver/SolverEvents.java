@@ -0,0 +1,98 @@
+package solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events emitted by the phases of building, solving and
+ * exporting a game tree. An event costs next to nothing unless a recording has
+ * it enabled.
+ * 
+ * @author Tin Leelavimolsilp
+ */
+final class SolverEvents {
+
+    private SolverEvents() {
+    }
+
+    @Name("solver.TreeBuild")
+    @Label("Game Tree Construction")
+    @Category("Solver")
+    @Description("Construction of a game tree from its root state")
+    @StackTrace(false)
+    static final class TreeBuild extends Event {
+
+	@Label("Board Size")
+	@Description("Number of cells of the root state, or zero if unknown")
+	int boardSize;
+
+	@Label("Nodes")
+	int nodes;
+
+	@Label("Edges")
+	long edges;
+
+	@Label("Truncated")
+	@Description("Whether construction stopped at its maximum depth or over its memory budget")
+	boolean truncated;
+    }
+
+    @Name("solver.Solve")
+    @Label("Game Tree Solve")
+    @Category("Solver")
+    @Description("Computation of the value of every state of a game tree")
+    @StackTrace(false)
+    static final class Solve extends Event {
+
+	@Label("Board Size")
+	@Description("Number of cells of the root state, or zero if unknown")
+	int boardSize;
+
+	@Label("Nodes")
+	int nodes;
+
+	@Label("Value")
+	@Description("Value of the root state to its player")
+	float value;
+    }
+
+    @Name("solver.PolicyGeneration")
+    @Label("Policy Generation")
+    @Category("Solver")
+    @Description("Construction of the best actions of every state of a solved game tree")
+    @StackTrace(false)
+    static final class PolicyGeneration extends Event {
+
+	@Label("Board Size")
+	@Description("Number of cells of the root state, or zero if unknown")
+	int boardSize;
+
+	@Label("Nodes")
+	int nodes;
+    }
+
+    @Name("solver.Print")
+    @Label("Game Tree Export")
+    @Category("Solver")
+    @Description("Writing every state of a game tree into files")
+    @StackTrace(false)
+    static final class Print extends Event {
+
+	@Label("Board Size")
+	@Description("Number of cells of the root state, or zero if unknown")
+	int boardSize;
+
+	@Label("Nodes")
+	int nodes;
+
+	@Label("Written")
+	@DataAmount
+	long bytes;
+    }
+
+}
@@ -0,0 +1,20 @@
+package solver;
+
+/**
+ * Management interface publishing measurements of a solver over JMX
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public interface SolverMXBean {
+
+    boolean isSolved();
+
+    long getSolveNanos();
+
+    double getSolvedNodesPerSecond();
+
+    long getPolicyQueries();
+
+    double getPolicyCacheHitRate();
+
+}
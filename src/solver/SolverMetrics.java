@@ -0,0 +1,94 @@
+package solver;
+
+/**
+ * An immutable snapshot of measurements on a solver and its game tree
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public final class SolverMetrics {
+
+    /**
+     * Measurements on the solved game tree
+     */
+    private final TreeMetrics tree;
+
+    /**
+     * True if the tree was solved
+     */
+    private final boolean solved;
+
+    /**
+     * Wall time taken by the last call to solve() in nanoseconds
+     */
+    private final long solveNanos;
+
+    /**
+     * Number of policy queries
+     */
+    private final long policyQueries;
+
+    /**
+     * Number of policy queries that did not have to solve the tree or generate
+     * the policy first
+     */
+    private final long policyHits;
+
+    SolverMetrics(TreeMetrics tree, boolean solved, long solveNanos, long policyQueries, long policyHits) {
+	this.tree = tree;
+	this.solved = solved;
+	this.solveNanos = solveNanos;
+	this.policyQueries = policyQueries;
+	this.policyHits = policyHits;
+    }
+
+    /**
+     * Return measurements on the solved game tree
+     */
+    public TreeMetrics getTree() {
+	return tree;
+    }
+
+    /**
+     * Return true if the tree was solved
+     */
+    public boolean isSolved() {
+	return solved;
+    }
+
+    /**
+     * Return the wall time taken by the last call to solve() in nanoseconds
+     */
+    public long getSolveNanos() {
+	return solveNanos;
+    }
+
+    /**
+     * Return the number of states solved per second
+     */
+    public double getSolvedNodesPerSecond() {
+	return solveNanos == 0 ? 0 : tree.getNodeCount() * 1e9 / solveNanos;
+    }
+
+    /**
+     * Return the number of policy queries
+     */
+    public long getPolicyQueries() {
+	return policyQueries;
+    }
+
+    /**
+     * Return the fraction of policy queries answered without solving the tree or
+     * generating the policy first
+     */
+    public double getPolicyCacheHitRate() {
+	return policyQueries == 0 ? 0 : (double) policyHits / policyQueries;
+    }
+
+    @Override
+    public String toString() {
+	return tree.toString() + " solved=" + solved + " solveMs=" + solveNanos / 1_000_000 + " solvedNodes/s="
+		+ String.format("%.0f", getSolvedNodesPerSecond()) + " policyQueries=" + policyQueries
+		+ " policyCacheHitRate=" + String.format("%.3f", getPolicyCacheHitRate());
+    }
+
+}
@@ -31,6 +31,22 @@ public abstract class State<P extends Comparable<P>, A extends Comparable<A>> im
      */
     public abstract A[] getAction();
 
+    /**
+     * Copy the permissible actions, in the order of getAction(), into the
+     * specified buffer and return their number; zero if this is a terminal state.
+     * If the buffer is too short, only the number is returned. By default the
+     * actions are copied from getAction(); a subclass should override it so that
+     * searches can generate actions without allocating.
+     */
+    public int getAction(A[] buffer) {
+	A[] actions = getAction();
+	if (actions == null)
+	    return 0;
+	if (actions.length <= buffer.length)
+	    System.arraycopy(actions, 0, buffer, 0, actions.length);
+	return actions.length;
+    }
+
     /**
      * Perform the specified action a on this state. If it's a turn-based game, then
      * the player of this state should be changed to the opponent after a call to
@@ -38,6 +54,22 @@ public abstract class State<P extends Comparable<P>, A extends Comparable<A>> im
      */
     public abstract void doAction(A a);
 
+    /**
+     * Undo the specified action, which must be the last action performed on this
+     * state by doAction(), so that this state returns to the state before it. The
+     * player of this state is changed back as well.
+     */
+    public abstract void undoAction(A a);
+
+    /**
+     * Return a 64-bit key of this state for hash tables such as a transposition
+     * table. Equal states have equal keys. By default the key is spread from
+     * hashCode(); a subclass should override it with a cheaper or wider key.
+     */
+    public long getKey() {
+	return hashCode() * 0x9E3779B97F4A7C15L;
+    }
+
     @Override
     public abstract String toString();
 
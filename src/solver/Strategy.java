@@ -0,0 +1,141 @@
+package solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A strategy of one player extracted from a solved game tree: a single best
+ * action for each state of that player which can be reached while the player
+ * follows the strategy, whatever the opponent does. It secures the value of the
+ * state it was extracted from, and is usually a tiny fraction of the tree.
+ * <P>
+ * States are identified by State.getKey() only, so a strategy is loaded and
+ * queried without the game tree. It is stored as the sorted keys followed by
+ * the index of the action of each state within State.getAction(), so states
+ * must return their actions in the same order wherever the strategy is used.
+ * 
+ * @author Tin Leelavimolsilp
+ *
+ * @param <P> Type of player
+ * @param <A> Type of action
+ * @param <S> Type of state
+ */
+public final class Strategy<P extends Comparable<P>, A extends Comparable<A>, S extends State<P, A>> {
+
+    /**
+     * First bytes of a stored strategy
+     */
+    private static final int MAGIC = 0x53545247;
+
+    /**
+     * Largest number of actions a state of a strategy may have
+     */
+    static final int MAX_ACTIONS = 256;
+
+    /**
+     * Keys of the states of the strategy in ascending order
+     */
+    private final long[] keys;
+
+    /**
+     * Index of the action of each state within its permissible actions, unsigned
+     */
+    private final byte[] actions;
+
+    Strategy(long[] keys, byte[] actions) {
+	this.keys = keys;
+	this.actions = actions;
+    }
+
+    /**
+     * Return the action of the strategy on the specified state, or null if the
+     * state is not part of the strategy
+     */
+    public A getAction(S s) {
+	if (s == null)
+	    throw new NullPointerException("The specified state s must not be null.");
+
+	int i = Arrays.binarySearch(keys, s.getKey());
+	if (i < 0)
+	    return null;
+
+	A[] permissible = s.getAction();
+	int a = actions[i] & 0xFF;
+	return permissible == null || a >= permissible.length ? null : permissible[a];
+    }
+
+    /**
+     * Return the number of states of the strategy
+     */
+    public int size() {
+	return keys.length;
+    }
+
+    /**
+     * Return the number of bytes the strategy takes when written
+     */
+    public long getByteCount() {
+	return 8 + 9L * keys.length;
+    }
+
+    /**
+     * Write the strategy to the specified output
+     */
+    public void write(DataOutput out) throws IOException {
+	out.writeInt(MAGIC);
+	out.writeInt(keys.length);
+	for (long k : keys)
+	    out.writeLong(k);
+	out.write(actions);
+    }
+
+    /**
+     * Write the strategy to the specified file, replacing any existing file
+     */
+    public void write(Path file) throws IOException {
+	try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+	    write(out);
+	}
+    }
+
+    /**
+     * Return the strategy read from the specified input
+     */
+    public static <P extends Comparable<P>, A extends Comparable<A>, S extends State<P, A>> Strategy<P, A, S> read(
+	    DataInput in) throws IOException {
+	if (in.readInt() != MAGIC)
+	    throw new IOException("The specified input is not a strategy.");
+
+	int n = in.readInt();
+	if (n < 0)
+	    throw new IOException("The strategy is corrupted.");
+	long[] keys = new long[n];
+	for (int i = 0; i < n; i++) {
+	    keys[i] = in.readLong();
+	    if (i > 0 && keys[i] <= keys[i - 1])
+		throw new IOException("The keys of the strategy are not in ascending order.");
+	}
+	byte[] actions = new byte[n];
+	in.readFully(actions);
+	return new Strategy<P, A, S>(keys, actions);
+    }
+
+    /**
+     * Return the strategy read from the specified file
+     */
+    public static <P extends Comparable<P>, A extends Comparable<A>, S extends State<P, A>> Strategy<P, A, S> read(
+	    Path file) throws IOException {
+	try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+	    return read(in);
+	}
+    }
+
+}
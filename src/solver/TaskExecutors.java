@@ -0,0 +1,55 @@
+package solver;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for running many short, mostly blocking tasks such as requests to a
+ * server
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public final class TaskExecutors {
+
+    private TaskExecutors() {
+    }
+
+    /**
+     * Return an executor that starts a virtual thread for each task if the
+     * running JVM has them (Java 21 and later); otherwise a cached pool of daemon
+     * platform threads with the specified name prefix. The virtual threads are
+     * looked up reflectively so that this code still compiles for Java 17.
+     */
+    public static ExecutorService newPerTaskExecutor(String name) {
+	if (name == null)
+	    throw new NullPointerException("The specified name must not be null.");
+
+	try {
+	    return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+	} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+	    AtomicInteger count = new AtomicInteger();
+	    ThreadFactory factory = r -> {
+		Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+		t.setDaemon(true);
+		return t;
+	    };
+	    return Executors.newCachedThreadPool(factory);
+	}
+    }
+
+    /**
+     * Return true if newPerTaskExecutor() starts virtual threads
+     */
+    public static boolean hasVirtualThreads() {
+	try {
+	    Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+	    return true;
+	} catch (NoSuchMethodException e) {
+	    return false;
+	}
+    }
+
+}
@@ -0,0 +1,116 @@
+package solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size hash table from state keys to search results, shared by many
+ * threads without locking. Each entry is two words: the key exclusive-or'ed with
+ * the data, then the data. A reader accepts an entry only if the words are
+ * consistent with the probed key, so a torn entry written by racing threads is
+ * simply a miss (lockless hashing).
+ * <P>
+ * The data packs the value as float bits (bits 0-31), the remaining depth the
+ * value is valid for (bits 32-39), the bound type (bits 40-41) and the index of
+ * the best action (bits 42-57).
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public final class TranspositionTable {
+
+    /**
+     * Bound types of a stored value
+     */
+    public static final int EXACT = 1, LOWER = 2, UPPER = 3;
+
+    /**
+     * Largest depth that can be stored; it stands for an unlimited depth
+     */
+    public static final int MAX_DEPTH = 0xFF;
+
+    /**
+     * Pairs of words of the entries
+     */
+    private final AtomicLongArray words;
+
+    /**
+     * Number of entries minus one
+     */
+    private final int mask;
+
+    /**
+     * Construct an empty table of 2^bits entries
+     */
+    public TranspositionTable(int bits) {
+	if (bits < 1 || bits > 28)
+	    throw new IllegalArgumentException("the given number of bits is not between 1 and 28.");
+
+	words = new AtomicLongArray(2 << bits);
+	mask = (1 << bits) - 1;
+    }
+
+    /**
+     * Return the data stored for the specified key, or zero if there is none
+     */
+    public long probe(long key) {
+	int i = index(key);
+	long check = words.getOpaque(i);
+	long data = words.getOpaque(i + 1);
+	return (check ^ data) == key ? data : 0;
+    }
+
+    /**
+     * Store the specified search result for the specified key, replacing any entry
+     * in its slot
+     */
+    public void store(long key, float value, int depth, int bound, int action) {
+	long data = (Float.floatToRawIntBits(value) & 0xFFFFFFFFL) | ((long) Math.min(depth, MAX_DEPTH) << 32)
+		| ((long) bound << 40) | ((long) action << 42);
+	int i = index(key);
+	words.setOpaque(i, key ^ data);
+	words.setOpaque(i + 1, data);
+    }
+
+    /**
+     * Remove every entry
+     */
+    public void clear() {
+	for (int i = 0; i < words.length(); i++)
+	    words.setOpaque(i, 0);
+    }
+
+    /**
+     * Return the index of the first word of the slot of the specified key
+     */
+    private int index(long key) {
+	return ((int) (key ^ (key >>> 32)) & mask) << 1;
+    }
+
+    /**
+     * Return the value of the specified data
+     */
+    public static float value(long data) {
+	return Float.intBitsToFloat((int) data);
+    }
+
+    /**
+     * Return the depth of the specified data
+     */
+    public static int depth(long data) {
+	return (int) (data >>> 32) & 0xFF;
+    }
+
+    /**
+     * Return the bound type of the specified data, or zero if there is no entry
+     */
+    public static int bound(long data) {
+	return (int) (data >>> 40) & 0x3;
+    }
+
+    /**
+     * Return the index of the best action of the specified data
+     */
+    public static int action(long data) {
+	return (int) (data >>> 42) & 0xFFFF;
+    }
+
+}
@@ -0,0 +1,162 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of measurements on a game tree
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public final class TreeMetrics {
+
+    /**
+     * Number of states in the tree at each depth from the root; i.e.
+     * nodeCountByDepth[d] is the number of states d actions away from the root
+     */
+    private final int[] nodeCountByDepth;
+
+    /**
+     * Total number of states
+     */
+    private final int nodeCount;
+
+    /**
+     * Total number of transitions
+     */
+    private final long edgeCount;
+
+    /**
+     * Total number of non-terminal states
+     */
+    private final int innerNodeCount;
+
+    /**
+     * Number of terminal states won, lost or tied by the player of the root
+     */
+    private final int wins, losses, ties;
+
+    /**
+     * Wall time taken to construct the tree in nanoseconds
+     */
+    private final long constructionNanos;
+
+    /**
+     * Estimated number of bytes retained by the tree
+     */
+    private final long estimatedRetainedBytes;
+
+    /**
+     * Estimated number of generated states that were already in the tree
+     */
+    private final long transpositionHits;
+
+    /**
+     * Estimated number of generated states looked up in the tree
+     */
+    private final long transpositionLookups;
+
+    TreeMetrics(int[] nodeCountByDepth, int nodeCount, long edgeCount, int innerNodeCount, int wins, int losses,
+	    int ties, long constructionNanos, long estimatedRetainedBytes, long transpositionHits,
+	    long transpositionLookups) {
+	this.nodeCountByDepth = nodeCountByDepth;
+	this.nodeCount = nodeCount;
+	this.edgeCount = edgeCount;
+	this.innerNodeCount = innerNodeCount;
+	this.wins = wins;
+	this.losses = losses;
+	this.ties = ties;
+	this.constructionNanos = constructionNanos;
+	this.estimatedRetainedBytes = estimatedRetainedBytes;
+	this.transpositionHits = transpositionHits;
+	this.transpositionLookups = transpositionLookups;
+    }
+
+    /**
+     * Return the number of states at each depth from the root
+     */
+    public int[] getNodeCountByDepth() {
+	return nodeCountByDepth.clone();
+    }
+
+    /**
+     * Return the total number of states
+     */
+    public int getNodeCount() {
+	return nodeCount;
+    }
+
+    /**
+     * Return the total number of transitions
+     */
+    public long getEdgeCount() {
+	return edgeCount;
+    }
+
+    /**
+     * Return the average number of actions of a non-terminal state
+     */
+    public double getAverageBranchingFactor() {
+	return innerNodeCount == 0 ? 0 : (double) edgeCount / innerNodeCount;
+    }
+
+    /**
+     * Return the number of terminal states won by the player of the root
+     */
+    public int getTerminalWins() {
+	return wins;
+    }
+
+    /**
+     * Return the number of terminal states lost by the player of the root
+     */
+    public int getTerminalLosses() {
+	return losses;
+    }
+
+    /**
+     * Return the number of tied terminal states
+     */
+    public int getTerminalTies() {
+	return ties;
+    }
+
+    /**
+     * Return the wall time taken to construct the tree in nanoseconds
+     */
+    public long getConstructionNanos() {
+	return constructionNanos;
+    }
+
+    /**
+     * Return the number of states constructed per second
+     */
+    public double getNodesPerSecond() {
+	return constructionNanos == 0 ? 0 : nodeCount * 1e9 / constructionNanos;
+    }
+
+    /**
+     * Return the estimated number of bytes retained by the tree
+     */
+    public long getEstimatedRetainedBytes() {
+	return estimatedRetainedBytes;
+    }
+
+    /**
+     * Return the estimated fraction of generated states that were already in the
+     * tree. It is derived from the numbers of edges and states rather than counted
+     * during construction, so it assumes every edge was generated exactly once.
+     */
+    public double getTranspositionHitRate() {
+	return transpositionLookups == 0 ? 0 : (double) transpositionHits / transpositionLookups;
+    }
+
+    @Override
+    public String toString() {
+	return "nodes=" + nodeCount + " byDepth=" + Arrays.toString(nodeCountByDepth) + " edges=" + edgeCount
+		+ " branching=" + String.format("%.3f", getAverageBranchingFactor()) + " wins=" + wins + " losses="
+		+ losses + " ties=" + ties + " constructionMs=" + constructionNanos / 1_000_000 + " nodes/s="
+		+ String.format("%.0f", getNodesPerSecond()) + " retainedBytes=" + estimatedRetainedBytes
+		+ " transpositionHitRate=" + String.format("%.3f", getTranspositionHitRate());
+    }
+
+}
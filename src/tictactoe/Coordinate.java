@@ -7,6 +7,22 @@ package tictactoe;
  */
 public class Coordinate implements Comparable<Coordinate> {
 
+    /**
+     * Number of rows and columns with shared instances
+     */
+    private static final int SHARED = 16;
+
+    /**
+     * Shared instances of the cells of grids up to SHARED rows and columns, row
+     * by row
+     */
+    private static final Coordinate[] COORDINATES = new Coordinate[SHARED * SHARED];
+
+    static {
+	for (int i = 0; i < COORDINATES.length; i++)
+	    COORDINATES[i] = new Coordinate(i / SHARED, i % SHARED);
+    }
+
     /**
      * Row index
      */
@@ -27,6 +43,16 @@ public class Coordinate implements Comparable<Coordinate> {
 	this.column = column;
     }
 
+    /**
+     * Return the shared instance of the specified row and column index, so that
+     * the common grids do not allocate their cells
+     */
+    public static Coordinate valueOf(int row, int column) {
+	if (row >= 0 && row < SHARED && column >= 0 && column < SHARED)
+	    return COORDINATES[row * SHARED + column];
+	return new Coordinate(row, column);
+    }
+
     @Override
     public final int compareTo(Coordinate ci) {
 	int c;
@@ -0,0 +1,257 @@
+package tictactoe;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact binary log of games of Noughts-and-Crosses: the initial grid of each
+ * game followed by its actions and the queries for the best actions made along
+ * the way. It records real traffic so that it can be replayed as a benchmark.
+ * <P>
+ * A log starts with a magic number, followed by the games. Each game is its
+ * length in bytes, the initial grid as written by Grid.write() and one unsigned
+ * varint per event: zero for a query on the current grid, or one plus the
+ * row-major index of the cell marked.
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public final class GameTrace {
+
+    /**
+     * First bytes of a log
+     */
+    private static final int MAGIC = 0x47545243;
+
+    private GameTrace() {
+    }
+
+    /**
+     * Return all games of the specified log
+     */
+    public static List<Game> read(Path file) throws IOException {
+	List<Game> games = new ArrayList<Game>();
+	try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+	    if (in.readInt() != MAGIC)
+		throw new IOException("The specified file " + file + " is not a game trace.");
+
+	    while (true) {
+		int length;
+		try {
+		    length = in.readInt();
+		} catch (EOFException e) {
+		    return games;
+		}
+		byte[] body = new byte[length];
+		in.readFully(body);
+		games.add(new Game(body));
+	    }
+	}
+    }
+
+    /**
+     * A log open for appending games. Games may be recorded by many threads at
+     * once, and each is appended whole when it finishes.
+     */
+    public static final class Writer implements Closeable {
+
+	/**
+	 * Output to the file
+	 */
+	private final DataOutputStream out;
+
+	/**
+	 * Number of games appended
+	 */
+	private int games = 0;
+
+	/**
+	 * Create the specified log, replacing any existing file
+	 */
+	public Writer(Path file) throws IOException {
+	    out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(FileChannel.open(file,
+		    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)),
+		    1 << 16));
+	    out.writeInt(MAGIC);
+	}
+
+	/**
+	 * Start recording a game from the specified grid
+	 */
+	public Recording newGame(Grid initial) throws IOException {
+	    return new Recording(this, initial);
+	}
+
+	/**
+	 * Append the specified game
+	 */
+	synchronized void append(byte[] body, int length) throws IOException {
+	    out.writeInt(length);
+	    out.write(body, 0, length);
+	    games++;
+	}
+
+	/**
+	 * Return the number of games appended
+	 */
+	public synchronized int getGames() {
+	    return games;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+	    out.close();
+	}
+    }
+
+    /**
+     * A game being recorded by a single thread
+     */
+    public static final class Recording {
+
+	/**
+	 * Log the game is appended to
+	 */
+	private final Writer writer;
+
+	/**
+	 * Number of columns of the grid
+	 */
+	private final int columns;
+
+	/**
+	 * The game recorded so far
+	 */
+	private final ByteArrayOutputStream body = new ByteArrayOutputStream(64);
+
+	Recording(Writer writer, Grid initial) throws IOException {
+	    if (initial == null)
+		throw new NullPointerException("The specified grid must not be null.");
+
+	    this.writer = writer;
+	    this.columns = initial.getColumns();
+	    initial.write(new DataOutputStream(body));
+	}
+
+	/**
+	 * Record that the specified cell is marked
+	 */
+	public void move(Coordinate c) {
+	    writeVarint(1 + c.row * columns + c.column);
+	}
+
+	/**
+	 * Record a query for the best actions on the current grid
+	 */
+	public void query() {
+	    writeVarint(0);
+	}
+
+	/**
+	 * Append the game to the log
+	 */
+	public void finish() throws IOException {
+	    writer.append(body.toByteArray(), body.size());
+	}
+
+	private void writeVarint(int v) {
+	    while ((v & ~0x7F) != 0) {
+		body.write((v & 0x7F) | 0x80);
+		v >>>= 7;
+	    }
+	    body.write(v);
+	}
+    }
+
+    /**
+     * A game read from a log
+     */
+    public static final class Game {
+
+	/**
+	 * The initial grid
+	 */
+	private final Grid initial;
+
+	/**
+	 * Cell marked by each event, or null for a query
+	 */
+	private final Coordinate[] events;
+
+	Game(byte[] body) throws IOException {
+	    ByteArrayInputStream in = new ByteArrayInputStream(body);
+	    initial = Grid.read(new DataInputStream(in));
+
+	    // cells are shared, so a replay does not allocate them
+	    int columns = initial.getColumns();
+	    Coordinate[] cells = new Coordinate[initial.getRows() * columns];
+	    List<Coordinate> e = new ArrayList<Coordinate>();
+	    while (in.available() > 0) {
+		int v = 0, shift = 0, b;
+		do {
+		    if ((b = in.read()) < 0)
+			throw new EOFException("A game of the trace is cut short.");
+		    v |= (b & 0x7F) << shift;
+		    shift += 7;
+		} while ((b & 0x80) != 0);
+
+		if (v == 0)
+		    e.add(null);
+		else if (v > cells.length)
+		    throw new IOException("A game of the trace marks a cell outside its grid.");
+		else {
+		    if (cells[v - 1] == null)
+			cells[v - 1] = new Coordinate((v - 1) / columns, (v - 1) % columns);
+		    e.add(cells[v - 1]);
+		}
+	    }
+	    events = e.toArray(new Coordinate[e.size()]);
+	}
+
+	/**
+	 * Return a copy of the initial grid
+	 */
+	public Grid getInitial() {
+	    return new Grid(initial);
+	}
+
+	/**
+	 * Return the events of the game in order: the cell marked, or null for a
+	 * query for the best actions
+	 */
+	public Coordinate[] getEvents() {
+	    return events.clone();
+	}
+
+	/**
+	 * Return the number of queries for the best actions
+	 */
+	public int countQueries() {
+	    int n = 0;
+	    for (Coordinate c : events)
+		if (c == null)
+		    n++;
+	    return n;
+	}
+
+	@Override
+	public String toString() {
+	    return initial.getPlayer() + " " + initial.getRows() + "x" + initial.getColumns() + " "
+		    + Arrays.toString(events);
+	}
+    }
+
+}
@@ -1,13 +1,16 @@
 package tictactoe;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.Set;
-import java.util.TreeSet;
 
 import solver.State;
 
 /**
- * Square grid of Noughts-and-Crosses
+ * Grid of Noughts-and-Crosses with m rows, n columns and a line length k (the
+ * m,n,k-game); i.e. a player wins by marking k cells in a row, column or
+ * diagonal. The classic game is a square grid whose line spans the grid.
  * 
  * @author Tin Leelavimolsilp
  */
@@ -25,120 +28,149 @@ public class Grid extends State<Mark, Coordinate> {
      */
     @Override
     public final void doAction(Coordinate coord) {
-		Coordinate[] set = getAction(); //gets a list of unmarked spots
-		boolean available = false;
-		
-		for(int i = 0; i < set.length; i ++)
-		{
-			if(set[i].equals(coord))
-			{
-				available = true; //checks if the coordinate exists within the unmarked spots
-			}
-		}
-		
-		if(available)
-		{
-			grid[coord.row][coord.column] = player; 
-			System.out.println(toString());
-			
-			if (isWinner(player))
-			{
-				status = player;
-				System.out.println("Winner: " + player);
-			}
-			
-			if(getPlayer() == Mark.Cross)
-			{
-				xCount ++;
-				player = Mark.Nought;
-			}
-			else if(getPlayer() == Mark.Nought)
-			{
-				oCount ++;
-				player = Mark.Cross;
-			}
-		}
-		else
-		{
-			System.out.println("This coordinate is not available");
-		}
-		
-		int unmarked = countUnmarkedCells();
-		if (unmarked == 0 && status == Mark.Unmarked)
-		{
-			status = null;
-			System.out.println("No Winner");
-		}
-		
-    }
-    
-    
-    
-    public final boolean isWinner(Mark m)
-    {
-    	int hCount = 0;
-    	int vCount = 0;
-    	boolean winner = false;
-    	
-    	for(int i = 0; i < grid.length; i ++)
-    	{
-    		for(int j = 0; j < grid.length; j ++)
-    		{
-    			if(grid[i][j] == m)
-    			{
-    				hCount ++;
-    			}
-    			if(grid[j][i] == m)
-    			{
-    				vCount ++;
-    			}
-    		}
-    		if(hCount == grid.length || vCount == grid.length)
-    		{
-    			winner = true;
-    		}
-    		hCount = 0;
-    		vCount = 0;
-    	}
-    	
-    	int count = 0;
-    	
-    	for(int i = 0; i < grid.length; i ++)
-    	{
-    		if(grid[i][i] == m)
-    		{
-    			count ++;
-    		}
-    	}
-    	
-    	
-    	if(count == grid.length)
-    	{
-    		winner = true;
-    	}
-    	
-    	
-    	
-    	count = 0;
-    	
-    	int index = 0;
-    	
-    	for(int i = grid.length-1; i > 0; i --)
-    	{
-    		if(grid[index][i] == m)
-    		{
-    			count ++;
-    		}
-    		index ++;
-    	}
-    	
-    	
-    	if(count == grid.length)
-    	{
-    		winner = true;
-    	}
-    	
-    	return winner;
+	if (coord == null)
+	    throw new NullPointerException("The specified coordinate must not be null.");
+	if (status != Mark.Unmarked)
+	    throw new IllegalArgumentException("The grid is in a terminal state.");
+	if (!isUnmarked(coord))
+	    throw new IllegalArgumentException("The specified coordinate " + coord + " is not an unmarked cell.");
+
+	grid[coord.row][coord.column] = player;
+	key ^= zobrist(coord, player) ^ NOUGHT_TO_MOVE;
+	if (player == Mark.Cross)
+	    xCount++;
+	else
+	    oCount++;
+
+	if (isLine(coord.row, coord.column, player))
+	    status = player;
+	else if (countUnmarkedCells() == 0)
+	    status = null;
+
+	player = getOpponent(player);
+    }
+
+    /**
+     * Unmark the grid cell marked by the last call to {@code doAction()}, so that
+     * this grid returns to the state before that call. The mark of the current
+     * {@code player} is changed back.
+     * 
+     * @param coord the index of grid cell marked last
+     */
+    @Override
+    public final void undoAction(Coordinate coord) {
+	if (coord == null)
+	    throw new NullPointerException("The specified coordinate must not be null.");
+	Mark last = getOpponent(player);
+	if (coord.row >= grid.length || coord.column >= grid[coord.row].length
+		|| grid[coord.row][coord.column] != last)
+	    throw new IllegalArgumentException("The specified coordinate " + coord + " was not marked by " + last + ".");
+
+	grid[coord.row][coord.column] = Mark.Unmarked;
+	key ^= zobrist(coord, last) ^ NOUGHT_TO_MOVE;
+	if (last == Mark.Cross)
+	    xCount--;
+	else
+	    oCount--;
+
+	status = Mark.Unmarked;
+	player = last;
+    }
+
+    /**
+     * Return true if the specified coordinate is an unmarked cell of this grid
+     */
+    private boolean isUnmarked(Coordinate coord) {
+	return coord.row < grid.length && coord.column < grid[coord.row].length
+		&& grid[coord.row][coord.column] == Mark.Unmarked;
+    }
+
+    /**
+     * Return the opponent of the specified mark
+     */
+    private static Mark getOpponent(Mark m) {
+	return m == Mark.Cross ? Mark.Nought : Mark.Cross;
+    }
+
+    /**
+     * Return the random-looking bits toggled in the key when the specified
+     * coordinate is marked with the specified mark (Zobrist hashing). The bits are
+     * derived from a SplitMix64 mix of the cell index, so no table is needed.
+     */
+    private long zobrist(Coordinate coord, Mark m) {
+	return mix(((long) coord.row * grid[0].length + coord.column) * 2 + m.ordinal() + 1);
+    }
+
+    /**
+     * Return the key of an empty grid of the specified rows, columns and line
+     * length, so that grids of different shapes do not share keys in a table
+     * shared by searches of both
+     */
+    private static long emptyKey(int rows, int columns, int k) {
+	return mix(-(((long) rows << 42) ^ ((long) columns << 21) ^ k));
+    }
+
+    /**
+     * Return the SplitMix64 mix of the specified value
+     */
+    private static long mix(long v) {
+	long z = v * 0x9E3779B97F4A7C15L;
+	z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+	z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+	return z ^ (z >>> 31);
+    }
+
+    /**
+     * Largest number of rows or columns of a grid that write() accepts
+     */
+    private static final int MAX_WRITTEN_SIZE = 255;
+
+    /**
+     * Bits toggled in the key whenever the player to move changes
+     */
+    private static final long NOUGHT_TO_MOVE = 0x5DEECE66DL;
+
+    /**
+     * Return true if the specified mark has k cells in a line anywhere on this grid
+     */
+    public final boolean isWinner(Mark m) {
+	for (int i = 0; i < grid.length; i++)
+	    for (int j = 0; j < grid[i].length; j++)
+		if (grid[i][j] == m && isLine(i, j, m))
+		    return true;
+
+	return false;
+    }
+
+    /**
+     * Return true if the cell at the specified row and column lies on a line of k
+     * cells of the specified mark. Only cells less than k away from it are
+     * checked.
+     */
+    private boolean isLine(int row, int column, Mark m) {
+	return countLine(row, column, m, 0, 1) >= k || countLine(row, column, m, 1, 0) >= k
+		|| countLine(row, column, m, 1, 1) >= k || countLine(row, column, m, 1, -1) >= k;
+    }
+
+    /**
+     * Return the number of consecutive cells of the specified mark through the
+     * cell at the specified row and column in the direction (dRow, dColumn), up to
+     * 2k - 1 cells
+     */
+    private int countLine(int row, int column, Mark m, int dRow, int dColumn) {
+	int count = 1;
+	for (int i = 1; i < k && isMark(row + i * dRow, column + i * dColumn, m); i++)
+	    count++;
+	for (int i = 1; i < k && isMark(row - i * dRow, column - i * dColumn, m); i++)
+	    count++;
+	return count;
+    }
+
+    /**
+     * Return true if the specified row and column is a cell of the specified mark
+     */
+    private boolean isMark(int row, int column, Mark m) {
+	return row >= 0 && row < grid.length && column >= 0 && column < grid[row].length && grid[row][column] == m;
     }
 
     /**
@@ -147,6 +179,11 @@ public class Grid extends State<Mark, Coordinate> {
      */
     private final Mark[][] grid;
 
+    /**
+     * Number of cells in a line needed to win
+     */
+    private final int k;
+
     /**
      * Total number of X marks
      */
@@ -164,21 +201,42 @@ public class Grid extends State<Mark, Coordinate> {
     private Mark status = Mark.Unmarked;
 
     /**
-     * Construct a new square {@code grid}
+     * 64-bit key of this state, updated incrementally on every action
+     */
+    private long key;
+
+    /**
+     * Construct a new square {@code grid} whose line spans the grid
      * 
      * @param mark the mark of the player that will take turn
      * @param size the size of the {@code grid}
      */
     public Grid(Mark mark, int size) {
+	this(mark, size, size, size);
+    }
+
+    /**
+     * Construct a new rectangular {@code grid}
+     * 
+     * @param mark    the mark of the player that will take turn
+     * @param rows    the number of rows of the {@code grid}
+     * @param columns the number of columns of the {@code grid}
+     * @param k       the number of cells in a line needed to win
+     */
+    public Grid(Mark mark, int rows, int columns, int k) {
 	super(mark);
 	if (mark == Mark.Unmarked)
 	    throw new IllegalArgumentException("the given mark must not be UnMarked.");
-	if (size <= 0)
+	if (rows <= 0 || columns <= 0)
 	    throw new IllegalArgumentException("the given size is not positive.");
+	if (k <= 0 || k > Math.max(rows, columns))
+	    throw new IllegalArgumentException("the given line length is not between 1 and the size.");
 
-	grid = new Mark[size][size];
+	this.k = k;
+	grid = new Mark[rows][columns];
 	for (int i = 0; i < grid.length; i++)
 	    Arrays.fill(grid[i], Mark.Unmarked);
+	key = emptyKey(rows, columns, k) ^ (mark == Mark.Nought ? NOUGHT_TO_MOVE : 0);
     }
 
     /**
@@ -189,14 +247,121 @@ public class Grid extends State<Mark, Coordinate> {
     public Grid(Grid g) {
 	super(g);
 
-	this.grid = new Mark[g.grid.length][g.grid.length];
+	this.grid = new Mark[g.grid.length][];
 	for (int i = 0; i < grid.length; i++)
-	    for (int j = 0; j < grid[i].length; j++)
-		this.grid[i][j] = g.grid[i][j];
+	    this.grid[i] = g.grid[i].clone();
+	this.k = g.k;
 
 	this.oCount = g.oCount;
 	this.xCount = g.xCount;
 	this.status = g.status;
+	this.key = g.key;
+    }
+
+    /**
+     * Write this grid to the specified output in a compact binary form, which
+     * read() reads back. Grids of more than 255 rows or columns cannot be
+     * written.
+     */
+    public final void write(DataOutput out) throws IOException {
+	if (grid.length > MAX_WRITTEN_SIZE || grid[0].length > MAX_WRITTEN_SIZE)
+	    throw new IllegalStateException("The grid is too large to be written.");
+
+	out.writeByte(grid.length);
+	out.writeByte(grid[0].length);
+	out.writeByte(k);
+	out.writeByte(player.ordinal());
+	for (Mark[] row : grid)
+	    for (Mark m : row)
+		out.writeByte(m.ordinal());
+    }
+
+    /**
+     * Read a grid written by write() from the specified input
+     */
+    public static Grid read(DataInput in) throws IOException {
+	Mark[] marks = Mark.values();
+	int rows = in.readUnsignedByte(), columns = in.readUnsignedByte(), k = in.readUnsignedByte();
+	if (rows == 0 || columns == 0 || k == 0 || k > Math.max(rows, columns))
+	    throw new IOException("The grid read has an invalid size " + rows + "x" + columns + " with k=" + k + ".");
+	int player = in.readUnsignedByte();
+	if (player >= marks.length || marks[player] == Mark.Unmarked)
+	    throw new IOException("The grid read has no player to move.");
+
+	Grid g = new Grid(marks[player], rows, columns, k);
+	for (int i = 0; i < rows; i++)
+	    for (int j = 0; j < columns; j++) {
+		int m = in.readUnsignedByte();
+		if (m >= marks.length)
+		    throw new IOException("The grid read has an invalid mark " + m + ".");
+		g.place(i, j, marks[m]);
+	    }
+	g.settle();
+	return g;
+    }
+
+    /**
+     * Return a grid read from its text form: rows of X, O and - (for an unmarked
+     * cell) separated by '/', such as "X--/-O-/---"
+     * 
+     * @param text   the cells of the grid
+     * @param player the mark of the player that will take turn
+     * @param k      the number of cells in a line needed to win
+     */
+    public static Grid parse(String text, Mark player, int k) {
+	if (text == null)
+	    throw new NullPointerException("The specified text must not be null.");
+
+	String[] rows = text.split("/", -1);
+	Grid g = new Grid(player, rows.length, rows[0].length(), k);
+	for (int i = 0; i < rows.length; i++) {
+	    if (rows[i].length() != rows[0].length())
+		throw new IllegalArgumentException("The rows of the specified text differ in length.");
+
+	    for (int j = 0; j < rows[i].length(); j++)
+		switch (Character.toUpperCase(rows[i].charAt(j))) {
+		case 'X':
+		    g.place(i, j, Mark.Cross);
+		    break;
+		case 'O':
+		    g.place(i, j, Mark.Nought);
+		    break;
+		case '-':
+		    break;
+		default:
+		    throw new IllegalArgumentException(
+			    "The specified text has an invalid cell " + rows[i].charAt(j) + ".");
+		}
+	}
+	g.settle();
+	return g;
+    }
+
+    /**
+     * Mark the specified cell of a grid being read without changing the player
+     */
+    private void place(int row, int column, Mark m) {
+	if (m == Mark.Unmarked)
+	    return;
+
+	grid[row][column] = m;
+	key ^= zobrist(new Coordinate(row, column), m);
+	if (m == Mark.Cross)
+	    xCount++;
+	else
+	    oCount++;
+    }
+
+    /**
+     * Record the status of a grid once all of its cells are read
+     */
+    private void settle() {
+	if (isWinner(Mark.Cross))
+	    status = Mark.Cross;
+	else if (isWinner(Mark.Nought))
+	    status = Mark.Nought;
+	else if (countUnmarkedCells() == 0)
+	    status = null;
     }
 
     /**
@@ -208,13 +373,43 @@ public class Grid extends State<Mark, Coordinate> {
 	if (status != Mark.Unmarked) // if this state is terminal
 	    return null;
 
-	// construct a sorted array of permissible actions
-	Set<Coordinate> set = new TreeSet<Coordinate>();
+	// cells are visited row by row, so the array is naturally sorted
+	Coordinate[] coords = new Coordinate[countUnmarkedCells()];
+	int n = 0;
+	for (int i = 0; i < grid.length; i++)
+	    for (int j = 0; j < grid[i].length; j++)
+		if (grid[i][j] == Mark.Unmarked)
+		    coords[n++] = Coordinate.valueOf(i, j);
+	return coords;
+    }
+
+    /**
+     * Copy the unmarked cells into the specified buffer without allocating, as
+     * long as the grid has at most 16 rows and columns
+     */
+    @Override
+    public final int getAction(Coordinate[] buffer) {
+	if (status != Mark.Unmarked)
+	    return 0;
+
+	int count = countUnmarkedCells();
+	if (count > buffer.length)
+	    return count;
+	int n = 0;
 	for (int i = 0; i < grid.length; i++)
 	    for (int j = 0; j < grid[i].length; j++)
 		if (grid[i][j] == Mark.Unmarked)
-		    set.add(new Coordinate(i, j));
-	return set.toArray(new Coordinate[set.size()]);
+		    buffer[n++] = Coordinate.valueOf(i, j);
+	return count;
+    }
+
+    /**
+     * Return a 64-bit Zobrist key of this grid, which changes in constant time on
+     * every action
+     */
+    @Override
+    public final long getKey() {
+	return key;
     }
 
     @Override
@@ -222,6 +417,27 @@ public class Grid extends State<Mark, Coordinate> {
 	return status == Mark.Unmarked ? false : true;
     }
 
+    /**
+     * Return total number of rows
+     */
+    public final int getRows() {
+	return grid.length;
+    }
+
+    /**
+     * Return total number of columns
+     */
+    public final int getColumns() {
+	return grid[0].length;
+    }
+
+    /**
+     * Return number of cells in a line needed to win
+     */
+    public final int getLineLength() {
+	return k;
+    }
+
     /**
      * Return total number of unmarked cells
      */
@@ -242,6 +458,7 @@ public class Grid extends State<Mark, Coordinate> {
 	final int prime = 31;
 	int result = super.hashCode();
 	result = prime * result + Arrays.deepHashCode(grid);
+	result = prime * result + k;
 	result = prime * result + oCount;
 	result = prime * result + xCount;
 	result = prime * result + ((status == null) ? 0 : status.hashCode());
@@ -261,6 +478,8 @@ public class Grid extends State<Mark, Coordinate> {
 
 	if (!Arrays.deepEquals(grid, other.grid))
 	    return false;
+	if (k != other.k)
+	    return false;
 	if (status != other.status)
 	    return false;
 	if (oCount != other.oCount)
@@ -285,6 +504,10 @@ public class Grid extends State<Mark, Coordinate> {
 	int c;
 	if ((c = Integer.compare(this.grid.length, g.grid.length)) != 0)
 	    return c;
+	if ((c = Integer.compare(this.grid[0].length, g.grid[0].length)) != 0)
+	    return c;
+	if ((c = Integer.compare(this.k, g.k)) != 0)
+	    return c;
 	if ((c = Integer.compare(this.xCount + this.oCount, g.xCount + g.oCount)) != 0)
 	    return c;
 	if ((c = this.player.compareTo(g.player)) != 0)
@@ -0,0 +1,73 @@
+package ultimate;
+
+/**
+ * Index of a small board and index of a cell within it, both counted row by row
+ * from the top-left
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public final class Move implements Comparable<Move> {
+
+    /**
+     * Shared instances of all 81 moves
+     */
+    private static final Move[] MOVES = new Move[81];
+
+    static {
+	for (int i = 0; i < MOVES.length; i++)
+	    MOVES[i] = new Move(i / 9, i % 9);
+    }
+
+    /**
+     * Small board index
+     */
+    public final int board;
+
+    /**
+     * Cell index within the small board
+     */
+    public final int cell;
+
+    private Move(int board, int cell) {
+	this.board = board;
+	this.cell = cell;
+    }
+
+    /**
+     * Return the move on the specified cell of the specified small board
+     */
+    public static Move valueOf(int board, int cell) {
+	if (board < 0 || board >= 9)
+	    throw new IllegalArgumentException("the given board index is out of range");
+	if (cell < 0 || cell >= 9)
+	    throw new IllegalArgumentException("the given cell index is out of range");
+
+	return MOVES[board * 9 + cell];
+    }
+
+    @Override
+    public int compareTo(Move m) {
+	return Integer.compare(board * 9 + cell, m.board * 9 + m.cell);
+    }
+
+    @Override
+    public int hashCode() {
+	return board * 9 + cell;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+	if (this == obj)
+	    return true;
+	if (!(obj instanceof Move))
+	    return false;
+
+	Move other = (Move) obj;
+	return board == other.board && cell == other.cell;
+    }
+
+    @Override
+    public String toString() {
+	return "(" + board + ", " + cell + ")";
+    }
+}
@@ -0,0 +1,403 @@
+package ultimate;
+
+import solver.State;
+import tictactoe.Mark;
+
+/**
+ * Ultimate Noughts-and-Crosses: nine small 3x3 boards laid out as a 3x3 board.
+ * A player wins a small board with three in a line on it, and wins the game
+ * with three small boards in a line. The cell just marked sends the opponent to
+ * the small board of the same index; if that board is already won or full, the
+ * opponent may move on any board still open.
+ * <P>
+ * Each small board is packed into one int, with the crosses in bits 0-8 and the
+ * noughts in bits 16-24, so a win on it is a single lookup into a 512-entry
+ * table. The won and the decided small boards are packed the same way.
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class UltimateBoard extends State<Mark, Move> {
+
+    /**
+     * Bit masks of the eight lines of a 3x3 board
+     */
+    static final int[] LINES = { 0007, 0070, 0700, 0111, 0222, 0444, 0421, 0124 };
+
+    /**
+     * Whether a 9-bit set of cells holds a line, for every set
+     */
+    private static final boolean[] WINS = new boolean[512];
+
+    static {
+	for (int cells = 0; cells < WINS.length; cells++)
+	    for (int line : LINES)
+		if ((cells & line) == line)
+		    WINS[cells] = true;
+    }
+
+    /**
+     * Mask of all nine cells of a small board
+     */
+    private static final int FULL = 0777;
+
+    /**
+     * Shift of the noughts in a packed board
+     */
+    private static final int NOUGHTS = 16;
+
+    /**
+     * Marks of each small board, packed
+     */
+    private final int[] boards;
+
+    /**
+     * Small boards won by each player, packed
+     */
+    private int won = 0;
+
+    /**
+     * Small boards that are won or full
+     */
+    private int decided = 0;
+
+    /**
+     * Small board the player to move is sent to, or -1 if any open board
+     */
+    private int next = -1;
+
+    /**
+     * Value of {@code next} before each move, so that moves can be taken back
+     */
+    private final byte[] history;
+
+    /**
+     * Number of moves made
+     */
+    private int moves = 0;
+
+    /**
+     * Status of this game state. Unmarked if it is non-terminal; null if it is a
+     * tie; otherwise mark of the winner
+     */
+    private Mark status = Mark.Unmarked;
+
+    /**
+     * 64-bit key of the marks and the player to move, updated on every move
+     */
+    private long key;
+
+    /**
+     * Construct a new empty board
+     * 
+     * @param mark the mark of the player that will take turn
+     */
+    public UltimateBoard(Mark mark) {
+	super(mark);
+	if (mark == Mark.Unmarked)
+	    throw new IllegalArgumentException("the given mark must not be Unmarked.");
+
+	this.boards = new int[9];
+	this.history = new byte[81];
+	this.key = mark == Mark.Nought ? NOUGHT_TO_MOVE : 0;
+    }
+
+    /**
+     * Construct a new board that is a copy of the given board
+     * 
+     * @param b an existing board
+     */
+    public UltimateBoard(UltimateBoard b) {
+	super(b);
+
+	this.boards = b.boards.clone();
+	this.won = b.won;
+	this.decided = b.decided;
+	this.next = b.next;
+	this.history = b.history.clone();
+	this.moves = b.moves;
+	this.status = b.status;
+	this.key = b.key;
+    }
+
+    /**
+     * Mark the specified cell with the current {@code player}, and record the
+     * status of this game after that. The current {@code player} is then changed
+     * to the opponent.
+     */
+    @Override
+    public final void doAction(Move m) {
+	if (m == null)
+	    throw new NullPointerException("The specified move must not be null.");
+	if (status != Mark.Unmarked)
+	    throw new IllegalArgumentException("The board is in a terminal state.");
+	if (next >= 0 ? m.board != next : (decided & 1 << m.board) != 0)
+	    throw new IllegalArgumentException("The specified move " + m + " is not on an open board.");
+	if ((boards[m.board] & (0x10001 << m.cell)) != 0)
+	    throw new IllegalArgumentException("The specified move " + m + " is on a marked cell.");
+
+	int shift = player == Mark.Cross ? 0 : NOUGHTS;
+	int b = boards[m.board] |= 1 << m.cell + shift;
+	key ^= zobrist(m, player) ^ NOUGHT_TO_MOVE;
+
+	if (WINS[(b >>> shift) & FULL]) {
+	    won |= 1 << m.board + shift;
+	    decided |= 1 << m.board;
+	    if (WINS[(won >>> shift) & FULL])
+		status = player;
+	} else if (((b | b >>> NOUGHTS) & FULL) == FULL)
+	    decided |= 1 << m.board;
+
+	if (status == Mark.Unmarked && decided == FULL)
+	    status = null;
+
+	history[moves++] = (byte) next;
+	next = (decided & 1 << m.cell) == 0 ? m.cell : -1;
+	player = getOpponent(player);
+    }
+
+    /**
+     * Unmark the specified cell, marked by the last call to {@code doAction()}.
+     * The current {@code player} is changed back.
+     */
+    @Override
+    public final void undoAction(Move m) {
+	if (m == null)
+	    throw new NullPointerException("The specified move must not be null.");
+	if (moves == 0)
+	    throw new IllegalArgumentException("No move has been made.");
+
+	Mark last = getOpponent(player);
+	int shift = last == Mark.Cross ? 0 : NOUGHTS;
+	if ((boards[m.board] & 1 << m.cell + shift) == 0)
+	    throw new IllegalArgumentException("The specified move " + m + " was not made by " + last + ".");
+
+	boards[m.board] &= ~(1 << m.cell + shift);
+	won &= ~(0x10001 << m.board);
+	decided &= ~(1 << m.board);
+	key ^= zobrist(m, last) ^ NOUGHT_TO_MOVE;
+
+	// a move is only legal on an open board, so it was open before the move
+	status = Mark.Unmarked;
+	next = history[--moves];
+	player = last;
+    }
+
+    /**
+     * Return the opponent of the specified mark
+     */
+    private static Mark getOpponent(Mark m) {
+	return m == Mark.Cross ? Mark.Nought : Mark.Cross;
+    }
+
+    /**
+     * Return the random-looking bits toggled in the key when the specified move is
+     * made with the specified mark (Zobrist hashing)
+     */
+    private static long zobrist(Move m, Mark p) {
+	return mix((m.board * 9 + m.cell) * 2 + p.ordinal() + 1);
+    }
+
+    /**
+     * Return a SplitMix64 mix of the specified value
+     */
+    private static long mix(long z) {
+	z *= 0x9E3779B97F4A7C15L;
+	z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+	z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+	return z ^ (z >>> 31);
+    }
+
+    /**
+     * Bits toggled in the key whenever the player to move changes
+     */
+    private static final long NOUGHT_TO_MOVE = 0x5DEECE66DL;
+
+    /**
+     * Return the open cells of the board the player is sent to, or of every open
+     * board when free to choose; {@code null} if this is a terminal state
+     */
+    @Override
+    public final Move[] getAction() {
+	if (status != Mark.Unmarked)
+	    return null;
+
+	int first = next >= 0 ? next : 0, last = next >= 0 ? next : 8;
+	int n = 0;
+	for (int b = first; b <= last; b++)
+	    if ((decided & 1 << b) == 0)
+		n += 9 - Integer.bitCount((boards[b] | boards[b] >>> NOUGHTS) & FULL);
+
+	Move[] open = new Move[n];
+	n = 0;
+	for (int b = first; b <= last; b++) {
+	    if ((decided & 1 << b) != 0)
+		continue;
+	    int free = ~(boards[b] | boards[b] >>> NOUGHTS) & FULL;
+	    while (free != 0) {
+		open[n++] = Move.valueOf(b, Integer.numberOfTrailingZeros(free));
+		free &= free - 1;
+	    }
+	}
+	return open;
+    }
+
+    @Override
+    public final boolean isTerminated() {
+	return status != Mark.Unmarked;
+    }
+
+    /**
+     * Return Unmarked if the state is non-terminal; null if it is a tie; otherwise
+     * mark of the winner is returned
+     */
+    @Override
+    public final Mark getWinner() {
+	return status;
+    }
+
+    /**
+     * Return the mark on the specified cell of the specified small board
+     */
+    public final Mark getMark(int board, int cell) {
+	if (board < 0 || board >= 9 || cell < 0 || cell >= 9)
+	    throw new IllegalArgumentException("the given cell is outside the board.");
+
+	if ((boards[board] & 1 << cell) != 0)
+	    return Mark.Cross;
+	if ((boards[board] & 1 << cell + NOUGHTS) != 0)
+	    return Mark.Nought;
+	return Mark.Unmarked;
+    }
+
+    /**
+     * Return the mark that won the specified small board; Unmarked if it is still
+     * open; null if it is full without a winner
+     */
+    public final Mark getBoardWinner(int board) {
+	if (board < 0 || board >= 9)
+	    throw new IllegalArgumentException("the given board index is out of range");
+
+	if ((won & 1 << board) != 0)
+	    return Mark.Cross;
+	if ((won & 1 << board + NOUGHTS) != 0)
+	    return Mark.Nought;
+	return (decided & 1 << board) != 0 ? null : Mark.Unmarked;
+    }
+
+    /**
+     * Return the 9-bit set of cells of the specified small board holding the
+     * specified mark
+     */
+    final int getCells(int board, Mark m) {
+	return (boards[board] >>> (m == Mark.Cross ? 0 : NOUGHTS)) & FULL;
+    }
+
+    /**
+     * Return the 9-bit set of small boards won by the specified mark
+     */
+    final int getWonBoards(Mark m) {
+	return (won >>> (m == Mark.Cross ? 0 : NOUGHTS)) & FULL;
+    }
+
+    /**
+     * Return the 9-bit set of small boards that are won or full
+     */
+    final int getDecidedBoards() {
+	return decided;
+    }
+
+    /**
+     * Return the small board the player to move is sent to, or -1 if the player
+     * may move on any open board
+     */
+    public final int getNextBoard() {
+	return next;
+    }
+
+    /**
+     * Return total number of moves made
+     */
+    public final int countMoves() {
+	return moves;
+    }
+
+    /**
+     * Return a 64-bit key of the marks, the player to move and the board they are
+     * sent to
+     */
+    @Override
+    public final long getKey() {
+	return next < 0 ? key : key ^ mix(200 + next);
+    }
+
+    @Override
+    public final int hashCode() {
+	final int prime = 31;
+	int result = super.hashCode();
+	for (int b : boards)
+	    result = prime * result + b;
+	result = prime * result + next;
+	return result;
+    }
+
+    @Override
+    public final boolean equals(Object obj) {
+	if (this == obj)
+	    return true;
+	if (!super.equals(obj))
+	    return false;
+
+	if (!(obj instanceof UltimateBoard))
+	    return false;
+	UltimateBoard other = (UltimateBoard) obj;
+
+	if (next != other.next)
+	    return false;
+	for (int b = 0; b < 9; b++)
+	    if (boards[b] != other.boards[b])
+		return false;
+	return true;
+    }
+
+    @Override
+    public final int compareTo(State<Mark, Move> s) {
+	if (this == s)
+	    return 0;
+	if (s == null)
+	    throw new NullPointerException("the given state s must not be null.");
+
+	if (!(s instanceof UltimateBoard))
+	    throw new IllegalArgumentException("the given argument is not an instace of UltimateBoard.");
+	UltimateBoard u = (UltimateBoard) s;
+
+	int c;
+	if ((c = Integer.compare(this.moves, u.moves)) != 0)
+	    return c;
+	if ((c = this.player.compareTo(u.player)) != 0)
+	    return c;
+	if ((c = Integer.compare(this.next, u.next)) != 0)
+	    return c;
+	for (int b = 0; b < 9; b++)
+	    if ((c = Integer.compare(this.boards[b], u.boards[b])) != 0)
+		return c;
+	return 0;
+    }
+
+    @Override
+    public final String toString() {
+	StringBuilder s = new StringBuilder();
+	for (int row = 0; row < 9; row++) {
+	    if (row > 0 && row % 3 == 0)
+		s.append("---+---+---").append(System.lineSeparator());
+	    for (int column = 0; column < 9; column++) {
+		if (column > 0 && column % 3 == 0)
+		    s.append('|');
+		s.append(getMark(row / 3 * 3 + column / 3, row % 3 * 3 + column % 3).toString());
+	    }
+	    s.append(System.lineSeparator());
+	}
+
+	return s.toString();
+    }
+
+}
@@ -0,0 +1,94 @@
+package ultimate;
+
+import solver.Rules;
+import tictactoe.Mark;
+
+/**
+ * Rules of Ultimate Noughts-and-Crosses for searches over boards. Its game tree
+ * is far too large to build or to search to the end, so the searches are meant
+ * to be cut off at some depth and fall back on {@link #evaluateState}.
+ * 
+ * @author Tin Leelavimolsilp
+ */
+public class UltimateRules extends Rules<Mark, Move, UltimateBoard> {
+
+    /**
+     * Worth of each small board, by the number of lines through it
+     */
+    private static final int[] WEIGHTS = { 3, 2, 3, 2, 4, 2, 3, 2, 3 };
+
+    /**
+     * Scores of a won small board, of two small boards in an open line and of two
+     * cells in an open line of a small board, out of a won small board of weight
+     * one
+     */
+    private static final float WON = 1, MACRO_PAIR = 2, PAIR = 0.25f;
+
+    /**
+     * Score at which the estimate reaches half way to a win
+     */
+    private static final float SCALE = 20;
+
+    @Override
+    public final UltimateBoard constructNewState(UltimateBoard s) {
+	return new UltimateBoard(s);
+    }
+
+    /**
+     * A board is associated with 1 (or -1) if it's a win (or a loss,
+     * respectively) for the specified player; otherwise a zero for a tie
+     */
+    @Override
+    public final float evaluateTerminalState(UltimateBoard s, Mark p) {
+	assert s.isTerminated();
+
+	Mark w = s.getWinner();
+	if (w == null)
+	    return 0;
+	else
+	    return w.equals(p) ? 1 : -1;
+    }
+
+    /**
+     * A board is scored by the small boards won, weighted by where they are, and
+     * by the pairs in lines the opponent has not blocked, both on the large board
+     * and on each open small board. The score is squashed to lie strictly
+     * between -1 and 1.
+     */
+    @Override
+    public final float evaluateState(UltimateBoard s, Mark p) {
+	Mark o = p == Mark.Cross ? Mark.Nought : Mark.Cross;
+	float score = score(s, p) - score(s, o);
+	return score / (Math.abs(score) + SCALE);
+    }
+
+    /**
+     * Return the score of the specified player alone
+     */
+    private static float score(UltimateBoard s, Mark p) {
+	Mark o = p == Mark.Cross ? Mark.Nought : Mark.Cross;
+	int won = s.getWonBoards(p), blocked = s.getDecidedBoards() & ~won;
+
+	float score = 0;
+	for (int b = 0; b < 9; b++)
+	    if ((won & 1 << b) != 0)
+		score += WON * WEIGHTS[b];
+	    else if ((blocked & 1 << b) == 0)
+		score += PAIR * WEIGHTS[b] * countPairs(s.getCells(b, p), s.getCells(b, o));
+
+	return score + MACRO_PAIR * countPairs(won, blocked);
+    }
+
+    /**
+     * Return the number of lines holding two of the specified cells and none of
+     * the blocked cells
+     */
+    private static int countPairs(int cells, int blocked) {
+	int n = 0;
+	for (int line : UltimateBoard.LINES)
+	    if ((line & blocked) == 0 && Integer.bitCount(line & cells) == 2)
+		n++;
+	return n;
+    }
+
+}